@@ -0,0 +1,43 @@
+-- Adds the review indexes from setup.sql to a database created before they existed
+-- setup.sql's CREATE TABLE IF NOT EXISTS skips tables that are already there.
+-- MySQL has no CREATE INDEX IF NOT EXISTS, so each index is checked first
+-- and the script can be run any number of times.
+USE foodlocator;
+
+-- Cover the ORDER BY of each paged review sort (see ReviewSort)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'reviews'
+                 AND index_name = 'idx_reviews_location_recent') = 0,
+    'CREATE INDEX idx_reviews_location_recent ON reviews (locationID, createdAt, reviewID)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'reviews'
+                 AND index_name = 'idx_reviews_location_rating') = 0,
+    'CREATE INDEX idx_reviews_location_rating ON reviews (locationID, rating, createdAt, reviewID)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'reviews'
+                 AND index_name = 'idx_reviews_location_rating_low') = 0,
+    'CREATE INDEX idx_reviews_location_rating_low ON reviews (locationID, rating, createdAt DESC, reviewID DESC)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Keyset pages of a user's review history
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'reviews'
+                 AND index_name = 'idx_reviews_user_recent') = 0,
+    'CREATE INDEX idx_reviews_user_recent ON reviews (userID, createdAt, reviewID)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
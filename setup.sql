@@ -22,6 +22,7 @@ CREATE TABLE IF NOT EXISTS locations (
 );
 
 -- Reviews table
+-- Databases created before its indexes were added: run migrate_review_indexes.sql
 CREATE TABLE IF NOT EXISTS reviews (
     reviewID INT AUTO_INCREMENT PRIMARY KEY,
     locationID INT NOT NULL,
@@ -31,7 +32,27 @@ CREATE TABLE IF NOT EXISTS reviews (
     body VARCHAR(2000) NOT NULL,
     createdAt DATETIME DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (locationID) REFERENCES locations(locationID),
-    FOREIGN KEY (userID) REFERENCES users(id)
+    FOREIGN KEY (userID) REFERENCES users(id),
+    -- Cover the ORDER BY of each paged review sort (see ReviewSort)
+    INDEX idx_reviews_location_recent (locationID, createdAt, reviewID),
+    INDEX idx_reviews_location_rating (locationID, rating, createdAt, reviewID),
+    INDEX idx_reviews_location_rating_low (locationID, rating, createdAt DESC, reviewID DESC),
+    -- Keyset pages of a user's review history
+    INDEX idx_reviews_user_recent (userID, createdAt, reviewID)
+);
+
+-- Per-location rating aggregates, maintained by ReviewDAO on every review write
+CREATE TABLE IF NOT EXISTS location_ratings (
+    locationID INT PRIMARY KEY,
+    reviewCount INT NOT NULL DEFAULT 0,
+    ratingSum DECIMAL(12,1) NOT NULL DEFAULT 0,
+    avgRating DECIMAL(2,1) NOT NULL DEFAULT 0,
+    stars1 INT NOT NULL DEFAULT 0,
+    stars2 INT NOT NULL DEFAULT 0,
+    stars3 INT NOT NULL DEFAULT 0,
+    stars4 INT NOT NULL DEFAULT 0,
+    stars5 INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (locationID) REFERENCES locations(locationID) ON DELETE CASCADE
 );
 
 -- Insert sample locations
@@ -89,3 +110,19 @@ INSERT INTO reviews (locationID, userID, rating, title, body, createdAt) VALUES
 (5, 2, 4.5, 'Perfect spot with friends', 'Great place to hang out and enjoy bubble tea with friends. Chill vibe.', NOW() - INTERVAL 14 DAY),
 (5, 4, 4.0, 'Good value', 'Reasonably priced and good quality. Worth every penny.', NOW() - INTERVAL 3 DAY),
 (5, 5, 4.5, 'Must try', 'If you haven''t been here yet, you''re missing out. Seriously, go!', NOW() - INTERVAL 5 DAY);
+
+-- Backfill rating aggregates from the sample reviews
+-- (same query as RatingAggregateDAO.rebuildAll / RebuildRatingAggregates)
+REPLACE INTO location_ratings (locationID, reviewCount, ratingSum, avgRating, stars1, stars2, stars3, stars4, stars5)
+SELECT l.locationID,
+       COUNT(r.reviewID),
+       COALESCE(SUM(r.rating), 0),
+       COALESCE(ROUND(AVG(r.rating), 1), 0),
+       COALESCE(SUM(FLOOR(r.rating) <= 1), 0),
+       COALESCE(SUM(FLOOR(r.rating) = 2), 0),
+       COALESCE(SUM(FLOOR(r.rating) = 3), 0),
+       COALESCE(SUM(FLOOR(r.rating) = 4), 0),
+       COALESCE(SUM(FLOOR(r.rating) >= 5), 0)
+FROM locations l
+LEFT JOIN reviews r ON r.locationID = l.locationID
+GROUP BY l.locationID;
@@ -0,0 +1,128 @@
+package com.foodlocator.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.foodlocator.model.Location;
+
+/**
+ * Immutable view of every location with its rating and review count
+ * Locations held here are shared between requests and must not be modified
+ */
+public final class CatalogSnapshot {
+
+    private final List<Location> locations;
+    private final Map<Integer, Location> byId;
+    private final SpatialIndex spatialIndex;
+    // Built on first use, since most snapshots are replaced before anyone asks for clusters
+    private volatile ClusterIndex clusterIndex;
+    private final long version;
+    private final long builtAt;
+
+    CatalogSnapshot(List<Location> locations, long version, long builtAt) {
+        List<Location> sorted = new ArrayList<>(locations);
+        sorted.sort(Comparator.comparing(Location::getName, Comparator.nullsLast(String::compareTo)));
+
+        Map<Integer, Location> index = new HashMap<>();
+        for (Location location : sorted) {
+            index.put(location.getLocationID(), location);
+        }
+
+        this.locations = Collections.unmodifiableList(sorted);
+        this.byId = Collections.unmodifiableMap(index);
+        this.spatialIndex = new SpatialIndex(this.locations);
+        this.version = version;
+        this.builtAt = builtAt;
+    }
+
+    /**
+     * Copy of this snapshot with one location replaced, added or removed
+     * @param locationID ID of the changed location
+     * @param location New state of the location, or null if it was deleted
+     * @param version Version number of the new snapshot
+     * @return New snapshot
+     */
+    CatalogSnapshot with(int locationID, Location location, long version) {
+        List<Location> updated = new ArrayList<>(locations.size() + 1);
+        for (Location existing : locations) {
+            if (existing.getLocationID() != locationID) {
+                updated.add(existing);
+            }
+        }
+        if (location != null) {
+            updated.add(location);
+        }
+        return new CatalogSnapshot(updated, version, builtAt);
+    }
+
+    /**
+     * All locations ordered by name
+     * @return Unmodifiable list of locations
+     */
+    public List<Location> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Look up a location by ID
+     * @param locationID ID of the location
+     * @return Location or null if not in the catalog
+     */
+    public Location getLocation(int locationID) {
+        return byId.get(locationID);
+    }
+
+    /**
+     * Grid index over this snapshot's coordinates for nearby and viewport queries
+     * @return SpatialIndex built with this snapshot
+     */
+    public SpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Per-zoom marker clusters over this snapshot, built on first use
+     * @return ClusterIndex for this snapshot
+     */
+    public ClusterIndex getClusterIndex() {
+        ClusterIndex index = clusterIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = clusterIndex;
+                if (index == null) {
+                    index = new ClusterIndex(locations);
+                    clusterIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Number of locations in the catalog
+     * @return Location count
+     */
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * Monotonic version, bumped every time a new snapshot is published
+     * @return Snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Time the snapshot was last fully rebuilt from the database
+     * @return Epoch milliseconds
+     */
+    public long getBuiltAt() {
+        return builtAt;
+    }
+}
@@ -0,0 +1,151 @@
+package com.foodlocator.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.foodlocator.model.Location;
+import com.foodlocator.model.MarkerCluster;
+
+/**
+ * Precomputed marker clusters for every zoom level of one CatalogSnapshot
+ * The finest level groups locations into small grid cells; each coarser
+ * level merges 2x2 cells of the level below, so a viewport query at any
+ * zoom only reads the already-aggregated cells it overlaps
+ */
+public final class ClusterIndex {
+
+    public static final int MIN_ZOOM = 0;
+    public static final int MAX_ZOOM = 20;
+
+    // At zoom z the world is split into 2^(z + CELLS_PER_TILE_SHIFT) cells per axis,
+    // i.e. 4x4 cluster cells per 256px map tile
+    private static final int CELLS_PER_TILE_SHIFT = 2;
+
+    // Indexed by zoom
+    private final List<Map<Long, Cell>> levels;
+
+    ClusterIndex(List<Location> locations) {
+        List<Map<Long, Cell>> built = new ArrayList<>(Collections.nCopies(MAX_ZOOM + 1, null));
+        Map<Long, Cell> finest = new HashMap<>();
+        for (Location location : locations) {
+            long key = key(row(location.getLat(), MAX_ZOOM), col(location.getLng(), MAX_ZOOM));
+            finest.computeIfAbsent(key, k -> new Cell()).add(location);
+        }
+        built.set(MAX_ZOOM, finest);
+
+        for (int zoom = MAX_ZOOM - 1; zoom >= MIN_ZOOM; zoom--) {
+            Map<Long, Cell> parent = new HashMap<>();
+            for (Map.Entry<Long, Cell> entry : built.get(zoom + 1).entrySet()) {
+                long childKey = entry.getKey();
+                long key = key(rowOf(childKey) >> 1, colOf(childKey) >> 1);
+                parent.computeIfAbsent(key, k -> new Cell()).merge(entry.getValue());
+            }
+            built.set(zoom, parent);
+        }
+        levels = built;
+    }
+
+    /**
+     * Clusters overlapping a viewport at a zoom level
+     * @param zoom Zoom level, clamped to MIN_ZOOM..MAX_ZOOM
+     * @return One MarkerCluster per occupied cell in the viewport
+     */
+    public List<MarkerCluster> clusters(int zoom, double south, double west, double north, double east) {
+        int z = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        Map<Long, Cell> level = levels.get(z);
+        List<MarkerCluster> result = new ArrayList<>();
+        if (level.isEmpty() || south > north || west > east) {
+            return result;
+        }
+
+        int rowFrom = row(south, z);
+        int rowTo = row(north, z);
+        int colFrom = col(west, z);
+        int colTo = col(east, z);
+
+        long cellCount = (long) (rowTo - rowFrom + 1) * (colTo - colFrom + 1);
+        if (cellCount > level.size()) {
+            for (Map.Entry<Long, Cell> entry : level.entrySet()) {
+                int row = rowOf(entry.getKey());
+                int col = colOf(entry.getKey());
+                if (row >= rowFrom && row <= rowTo && col >= colFrom && col <= colTo) {
+                    result.add(entry.getValue().toCluster());
+                }
+            }
+        } else {
+            for (int row = rowFrom; row <= rowTo; row++) {
+                for (int col = colFrom; col <= colTo; col++) {
+                    Cell cell = level.get(key(row, col));
+                    if (cell != null) {
+                        result.add(cell.toCluster());
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static double cellDegrees(int zoom) {
+        return 360.0 / (1L << (zoom + CELLS_PER_TILE_SHIFT));
+    }
+
+    private static int row(double lat, int zoom) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / cellDegrees(zoom));
+    }
+
+    private static int col(double lng, int zoom) {
+        return (int) Math.floor((Math.max(-180, Math.min(180, lng)) + 180) / cellDegrees(zoom));
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static int rowOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int colOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Running aggregate for one grid cell
+     */
+    private static final class Cell {
+        private int count;
+        private double sumLat;
+        private double sumLng;
+        private double bestRating;
+        private int locationID;
+
+        void add(Location location) {
+            if (count == 0) {
+                locationID = location.getLocationID();
+            }
+            count++;
+            sumLat += location.getLat();
+            sumLng += location.getLng();
+            bestRating = Math.max(bestRating, location.getRating());
+        }
+
+        void merge(Cell other) {
+            if (count == 0) {
+                locationID = other.locationID;
+            }
+            count += other.count;
+            sumLat += other.sumLat;
+            sumLng += other.sumLng;
+            bestRating = Math.max(bestRating, other.bestRating);
+        }
+
+        MarkerCluster toCluster() {
+            return new MarkerCluster(sumLat / count, sumLng / count, count, bestRating,
+                    count == 1 ? locationID : null);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.foodlocator.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for data served by the API, used to build ETags
+ * Every location or review write bumps the location's counter and the
+ * global catalog counter; username changes bump the user counter, since
+ * author names appear in review responses. Counters live in memory and
+ * tags include a per-process epoch, so a restart invalidates all of them.
+ */
+public final class DataVersions {
+
+    private static final DataVersions instance = new DataVersions();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalog = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    // Full reloads, which may pick up changes made outside the app
+    private final AtomicLong reloads = new AtomicLong();
+    private final ConcurrentHashMap<Integer, AtomicLong> locations = new ConcurrentHashMap<>();
+
+    private DataVersions() {}
+
+    /**
+     * Get singleton instance of DataVersions
+     * @return DataVersions instance
+     */
+    public static DataVersions getInstance() {
+        return instance;
+    }
+
+    /**
+     * Get singleton instance of DataVersions after letting a stale LocationCatalog rebuild
+     * Use this to read a tag for a conditional request: clients whose tag
+     * still matches get a 304 without the catalog ever being read, so a
+     * stale catalog would otherwise not be noticed while every client
+     * revalidates. A rebuild bumps the counters before the tag is read.
+     * @return DataVersions instance
+     */
+    public static DataVersions current() {
+        LocationCatalog.getInstance().getSnapshot();
+        return instance;
+    }
+
+    /**
+     * Record a change to a location, its rating or its reviews
+     * @param locationID ID of the changed location
+     */
+    public void locationChanged(int locationID) {
+        locations.computeIfAbsent(locationID, id -> new AtomicLong()).incrementAndGet();
+        catalog.incrementAndGet();
+    }
+
+    /**
+     * Record that the whole catalog was reloaded and anything may have changed
+     */
+    public void catalogReloaded() {
+        catalog.incrementAndGet();
+        reloads.incrementAndGet();
+    }
+
+    /**
+     * Record a change to a user's public profile
+     */
+    public void usersChanged() {
+        users.incrementAndGet();
+    }
+
+    /**
+     * Tag for responses built from the whole catalog
+     * @return Weak ETag
+     */
+    public String catalogTag() {
+        return "W/\"c-" + epoch + "-" + catalog.get() + "\"";
+    }
+
+    /**
+     * Tag for responses about one location
+     * @param locationID ID of the location
+     * @return Weak ETag
+     */
+    public String locationTag(int locationID) {
+        return "W/\"l" + locationID + "-" + epoch + "-" + reloads.get() + "." + locationVersion(locationID) + "\"";
+    }
+
+    /**
+     * Tag for a location's reviews, which also show author names
+     * @param locationID ID of the location
+     * @return Weak ETag
+     */
+    public String reviewsTag(int locationID) {
+        return "W/\"r" + locationID + "-" + epoch + "-" + reloads.get() + "." + locationVersion(locationID)
+            + "." + users.get() + "\"";
+    }
+
+    /**
+     * Tag for reviews of an arbitrary set of locations, e.g. a batch request
+     * Changes whenever any location's reviews or any author name changes
+     * @return Weak ETag
+     */
+    public String reviewsTag() {
+        return "W/\"r-" + epoch + "-" + catalog.get() + "." + users.get() + "\"";
+    }
+
+    /**
+     * Tag for a user's own review history, which can span any location
+     * @param userID ID of the user
+     * @return Weak ETag
+     */
+    public String userReviewsTag(int userID) {
+        return "W/\"u" + userID + "-" + epoch + "-" + catalog.get() + "\"";
+    }
+
+    private long locationVersion(int locationID) {
+        AtomicLong version = locations.get(locationID);
+        return version != null ? version.get() : 0;
+    }
+}
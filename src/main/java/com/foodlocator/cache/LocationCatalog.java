@@ -0,0 +1,218 @@
+package com.foodlocator.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.foodlocator.dao.LocationDAO;
+import com.foodlocator.model.Location;
+
+/**
+ * In-process cache of the location catalog
+ * Readers get an immutable CatalogSnapshot that is swapped atomically
+ * whenever a location or its rating changes, and fully rebuilt from the
+ * database once it is older than the configured max staleness. A rebuild
+ * that fails keeps the previous snapshot and is retried after
+ * RETRY_MILLIS; with no previous snapshot, readers get an exception
+ * rather than an empty catalog.
+ */
+public class LocationCatalog {
+
+    // Wait between attempts while rebuilds keep failing
+    static final long RETRY_MILLIS = 5000;
+
+    private static final LocationCatalog instance = new LocationCatalog();
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    // Serializes rebuilds and single-location refreshes
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile long maxStalenessMillis = 60000;
+    // No stale rebuild is attempted before this time after a failure
+    private volatile long retryAt;
+    private long nextVersion = 1;
+    private final AtomicLong refreshTickets = new AtomicLong();
+    // Latest refresh ticket applied per location; guarded by writeLock
+    private final Map<Integer, Long> appliedRefreshes = new HashMap<>();
+
+    private LocationCatalog() {}
+
+    /**
+     * Get singleton instance of LocationCatalog
+     * @return LocationCatalog instance
+     */
+    public static LocationCatalog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Set how old a snapshot may get before readers trigger a full rebuild
+     * @param maxStalenessMillis Max age in milliseconds, 0 or less to never expire
+     */
+    public void setMaxStalenessMillis(long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Get the current catalog snapshot
+     * Builds it on first use; if it has gone stale, one caller rebuilds it
+     * while everyone else keeps reading the previous snapshot
+     * @return Current CatalogSnapshot
+     * @throws IllegalStateException if the catalog has never been loaded and loading it fails
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot snapshot = current.get();
+
+        if (snapshot == null) {
+            writeLock.lock();
+            try {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    snapshot = rebuildLocked();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } else if (isStale(snapshot) && writeLock.tryLock()) {
+            try {
+                if (current.get() == snapshot) {
+                    snapshot = rebuildLocked();
+                } else {
+                    snapshot = current.get();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Look up several locations, falling back to one database query for
+     * any the snapshot doesn't have yet, e.g. created since the last rebuild
+     * @param locationIDs IDs of the locations
+     * @return Map of locationID to Location; unknown IDs are missing.
+     *         null if the fallback query failed
+     */
+    public Map<Integer, Location> findLocations(Collection<Integer> locationIDs) {
+        CatalogSnapshot snapshot = getSnapshot();
+        Map<Integer, Location> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        for (int locationID : locationIDs) {
+            Location location = snapshot.getLocation(locationID);
+            if (location != null) {
+                found.put(locationID, location);
+            } else {
+                missing.add(locationID);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Integer, Location> loaded = new LocationDAO().getLocationsByIds(missing);
+            if (loaded == null) {
+                return null;
+            }
+            found.putAll(loaded);
+        }
+        return found;
+    }
+
+    /**
+     * Rebuild the whole catalog from the database
+     * @return Newly published snapshot, or the previous one if the rebuild failed
+     * @throws IllegalStateException if there is no previous snapshot and the rebuild failed
+     */
+    public CatalogSnapshot rebuild() {
+        writeLock.lock();
+        try {
+            return rebuildLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reload one location after it or its reviews changed
+     * Does nothing if the catalog has not been built yet. Call it after the
+     * write's connection is closed, since it borrows one of its own
+     * @param locationID ID of the changed location
+     */
+    public void refreshLocation(int locationID) {
+        if (current.get() == null) {
+            DataVersions.getInstance().locationChanged(locationID);
+            return;
+        }
+
+        // Taken after the caller's commit, so a higher ticket read newer data
+        long ticket = refreshTickets.incrementAndGet();
+        // Read without the lock, so a slow query doesn't block other refreshes
+        Location location = new LocationDAO().getLocationById(locationID);
+
+        writeLock.lock();
+        try {
+            CatalogSnapshot snapshot = current.get();
+            Long applied = appliedRefreshes.get(locationID);
+            // A failed lookup keeps the old entry; deletes go through removeLocation
+            if (snapshot != null && location != null && (applied == null || applied < ticket)) {
+                current.set(snapshot.with(locationID, location, nextVersion++));
+                appliedRefreshes.put(locationID, ticket);
+            }
+        } finally {
+            writeLock.unlock();
+            // After the swap, so a reader that sees the new version also sees the new data
+            DataVersions.getInstance().locationChanged(locationID);
+        }
+    }
+
+    /**
+     * Drop a deleted location from the catalog
+     * @param locationID ID of the deleted location
+     */
+    public void removeLocation(int locationID) {
+        if (current.get() == null) {
+            DataVersions.getInstance().locationChanged(locationID);
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            CatalogSnapshot snapshot = current.get();
+            if (snapshot != null) {
+                current.set(snapshot.with(locationID, null, nextVersion++));
+            }
+        } finally {
+            writeLock.unlock();
+            DataVersions.getInstance().locationChanged(locationID);
+        }
+    }
+
+    private boolean isStale(CatalogSnapshot snapshot) {
+        long maxStaleness = maxStalenessMillis;
+        long now = System.currentTimeMillis();
+        return maxStaleness > 0 && now - snapshot.getBuiltAt() > maxStaleness && now >= retryAt;
+    }
+
+    private CatalogSnapshot rebuildLocked() {
+        List<Location> locations = new LocationDAO().getAllLocations();
+        if (locations == null) {
+            // Publishing an empty catalog would get cached under a fresh tag
+            retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+            CatalogSnapshot previous = current.get();
+            if (previous == null) {
+                throw new IllegalStateException("Location catalog could not be loaded");
+            }
+            return previous;
+        }
+        CatalogSnapshot snapshot = new CatalogSnapshot(locations, nextVersion++, System.currentTimeMillis());
+        current.set(snapshot);
+        DataVersions.getInstance().catalogReloaded();
+        return snapshot;
+    }
+}
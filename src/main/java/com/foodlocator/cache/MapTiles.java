@@ -0,0 +1,191 @@
+package com.foodlocator.cache;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Tile pyramid of the campus map, kept on disk
+ * The source image is cut into TILE_SIZE squares at its native resolution
+ * (zoom maxZoom) and at every halving down to a single tile (zoom 0), so
+ * clients fetch only the tiles at the resolution they display. Tiles are
+ * written once per distinct source image, under a directory named after
+ * its content hash; that hash is also the version clients put in tile URLs.
+ */
+public class MapTiles {
+
+    public static final int TILE_SIZE = 256;
+
+    // Written last, so a half-generated pyramid from a crash is redone
+    private static final String COMPLETE_MARKER = ".complete";
+
+    private static final MapTiles instance = new MapTiles();
+
+    private volatile Pyramid pyramid;
+
+    private MapTiles() {}
+
+    /**
+     * Get singleton instance of MapTiles
+     * @return MapTiles instance
+     */
+    public static MapTiles getInstance() {
+        return instance;
+    }
+
+    /**
+     * Current pyramid
+     * @return Pyramid, or null if none has been built
+     */
+    public Pyramid getPyramid() {
+        return pyramid;
+    }
+
+    /**
+     * Build the pyramid for an image, reusing tiles already on disk
+     * @param image Encoded source image (PNG or JPEG)
+     * @param root Directory that holds one subdirectory per pyramid version
+     * @return The new current pyramid
+     * @throws IOException if the image can't be decoded or tiles can't be written
+     */
+    public Pyramid build(byte[] image, Path root) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(image));
+        if (source == null) {
+            throw new IOException("Unsupported map image format");
+        }
+
+        String version = hash(image);
+        int maxZoom = 0;
+        while ((Math.max(source.getWidth(), source.getHeight()) - 1) >> maxZoom >= TILE_SIZE) {
+            maxZoom++;
+        }
+        Pyramid built = new Pyramid(root.resolve(version), version, source.getWidth(), source.getHeight(), maxZoom);
+
+        if (!Files.exists(built.directory.resolve(COMPLETE_MARKER))) {
+            writeTiles(source, built);
+            Files.createFile(built.directory.resolve(COMPLETE_MARKER));
+        }
+
+        pyramid = built;
+        return built;
+    }
+
+    /**
+     * Cut every zoom level into tiles, halving the image between levels
+     */
+    private void writeTiles(BufferedImage source, Pyramid target) throws IOException {
+        BufferedImage level = source;
+        for (int zoom = target.maxZoom; zoom >= 0; zoom--) {
+            if (zoom < target.maxZoom) {
+                level = halve(level);
+            }
+            for (int y = 0; y * TILE_SIZE < level.getHeight(); y++) {
+                for (int x = 0; x * TILE_SIZE < level.getWidth(); x++) {
+                    BufferedImage tile = level.getSubimage(x * TILE_SIZE, y * TILE_SIZE,
+                        Math.min(TILE_SIZE, level.getWidth() - x * TILE_SIZE),
+                        Math.min(TILE_SIZE, level.getHeight() - y * TILE_SIZE));
+
+                    Path file = target.tile(zoom, x, y);
+                    Files.createDirectories(file.getParent());
+                    Path temp = Files.createTempFile(file.getParent(), "tile", ".tmp");
+                    ImageIO.write(tile, "png", temp.toFile());
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+    }
+
+    private static BufferedImage halve(BufferedImage image) {
+        int width = (image.getWidth() + 1) / 2;
+        int height = (image.getHeight() + 1) / 2;
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 5; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Immutable description of one generated pyramid
+     */
+    public static final class Pyramid {
+        private final Path directory;
+        private final String version;
+        private final int width;
+        private final int height;
+        private final int maxZoom;
+
+        Pyramid(Path directory, String version, int width, int height, int maxZoom) {
+            this.directory = directory;
+            this.version = version;
+            this.width = width;
+            this.height = height;
+            this.maxZoom = maxZoom;
+        }
+
+        /**
+         * File holding a tile
+         * @return Path of the tile, or null if the coordinates are outside the pyramid
+         */
+        public Path tileFile(int zoom, int x, int y) {
+            if (zoom < 0 || zoom > maxZoom || x < 0 || y < 0) {
+                return null;
+            }
+            int scale = 1 << (maxZoom - zoom);
+            int levelWidth = (width + scale - 1) / scale;
+            int levelHeight = (height + scale - 1) / scale;
+            if ((long) x * TILE_SIZE >= levelWidth || (long) y * TILE_SIZE >= levelHeight) {
+                return null;
+            }
+            return tile(zoom, x, y);
+        }
+
+        private Path tile(int zoom, int x, int y) {
+            return directory.resolve(zoom + "/" + x + "/" + y + ".png");
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getMaxZoom() {
+            return maxZoom;
+        }
+    }
+}
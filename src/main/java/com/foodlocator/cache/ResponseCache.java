@@ -0,0 +1,111 @@
+package com.foodlocator.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of fully encoded response bodies for the hottest GET endpoints
+ * Each entry holds the raw and gzip-encoded bytes in off-heap buffers,
+ * tagged with the data version they were built from, so a hit costs a
+ * buffer copy to the socket instead of query, transform and serialize
+ */
+public class ResponseCache {
+
+    // Only a handful of parameterless endpoints are cached; this is a safety net
+    private static final int MAX_ENTRIES = 32;
+
+    private static final ResponseCache instance = new ResponseCache();
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private ResponseCache() {}
+
+    /**
+     * Get singleton instance of ResponseCache
+     * @return ResponseCache instance
+     */
+    public static ResponseCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Look up a cached body
+     * @param key Endpoint, parameters and charset of the response
+     * @param version Current data version (e.g. the ETag)
+     * @return Entry built from that version, or null
+     */
+    public Entry get(String key, String version) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.version.equals(version) ? entry : null;
+    }
+
+    /**
+     * Cache a freshly serialized body, replacing any older version
+     * @param key Endpoint, parameters and charset of the response
+     * @param version Data version the body was built from
+     * @param body Encoded response body
+     * @return The new entry
+     */
+    public Entry put(String key, String version, byte[] body) {
+        Entry entry = new Entry(version, body);
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(key)) {
+            entries.clear();
+        }
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Drop every cached body
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Immutable pair of raw and gzip-encoded bodies for one data version
+     */
+    public static final class Entry {
+        private final String version;
+        private final ByteBuffer raw;
+        private final ByteBuffer gzip;
+
+        Entry(String version, byte[] body) {
+            this.version = version;
+            this.raw = toDirect(body);
+            this.gzip = toDirect(gzip(body));
+        }
+
+        /**
+         * Body bytes ready to write; each call returns an independent view
+         * @param gzipped Whether to return the gzip-encoded variant
+         * @return Read-only buffer positioned at the start of the body
+         */
+        public ByteBuffer body(boolean gzipped) {
+            return (gzipped ? gzip : raw).duplicate();
+        }
+
+        private static ByteBuffer toDirect(byte[] bytes) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            return buffer.asReadOnlyBuffer();
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+            try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+                    { def.setLevel(Deflater.BEST_COMPRESSION); }
+                }) {
+                gz.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.foodlocator.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.foodlocator.model.Location;
+import com.foodlocator.util.GeoUtils;
+
+/**
+ * Uniform lat/lng grid over the locations of one CatalogSnapshot
+ * Answers k-nearest, radius and bounding-box queries by visiting only the
+ * grid cells that can contain matches. Immutable once built.
+ */
+public final class SpatialIndex {
+
+    // Roughly 550m of latitude per cell
+    static final double CELL_SIZE_DEGREES = 0.005;
+
+    private static final Comparator<Location> BY_NAME =
+        Comparator.comparing(Location::getName, Comparator.nullsLast(String::compareTo));
+    private static final Comparator<Location> BY_DISTANCE =
+        Comparator.comparingDouble(Location::getDistance);
+
+    private final Map<Long, List<Location>> cells = new HashMap<>();
+    private final List<Location> all;
+    private final int minRow;
+    private final int maxRow;
+    private final int minCol;
+    private final int maxCol;
+
+    SpatialIndex(List<Location> locations) {
+        this.all = locations;
+
+        int rMin = Integer.MAX_VALUE, rMax = Integer.MIN_VALUE;
+        int cMin = Integer.MAX_VALUE, cMax = Integer.MIN_VALUE;
+        for (Location location : locations) {
+            int row = row(location.getLat());
+            int col = col(location.getLng());
+            cells.computeIfAbsent(key(row, col), k -> new ArrayList<>(2)).add(location);
+            rMin = Math.min(rMin, row);
+            rMax = Math.max(rMax, row);
+            cMin = Math.min(cMin, col);
+            cMax = Math.max(cMax, col);
+        }
+        this.minRow = rMin;
+        this.maxRow = rMax;
+        this.minCol = cMin;
+        this.maxCol = cMax;
+    }
+
+    /**
+     * Locations inside a map viewport, ordered by name
+     * @return Snapshot locations (not copies) inside the box
+     */
+    public List<Location> withinBounds(double south, double west, double north, double east) {
+        List<Location> matches = new ArrayList<>();
+        if (all.isEmpty() || south > north || west > east) {
+            return matches;
+        }
+
+        int rowFrom = Math.max(row(south), minRow);
+        int rowTo = Math.min(row(north), maxRow);
+        int colFrom = Math.max(col(west), minCol);
+        int colTo = Math.min(col(east), maxCol);
+
+        long cellCount = (long) Math.max(0, rowTo - rowFrom + 1) * Math.max(0, colTo - colFrom + 1);
+        if (cellCount > cells.size()) {
+            // A huge viewport over a sparse grid: walking the occupied cells is cheaper
+            for (Location location : all) {
+                if (inBounds(location, south, west, north, east)) {
+                    matches.add(location);
+                }
+            }
+        } else {
+            for (int row = rowFrom; row <= rowTo; row++) {
+                for (int col = colFrom; col <= colTo; col++) {
+                    List<Location> cell = cells.get(key(row, col));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Location location : cell) {
+                        if (inBounds(location, south, west, north, east)) {
+                            matches.add(location);
+                        }
+                    }
+                }
+            }
+        }
+
+        matches.sort(BY_NAME);
+        return matches;
+    }
+
+    /**
+     * Locations within a radius of a point, nearest first
+     * @param radiusMiles Search radius in miles
+     * @return Copies of the matching locations with distance filled in
+     */
+    public List<Location> withinRadius(double lat, double lng, double radiusMiles) {
+        double dLat = radiusMiles / GeoUtils.MILES_PER_DEGREE_LAT;
+        double lngMiles = GeoUtils.milesPerDegreeLng(Math.min(89.9, Math.abs(lat) + dLat));
+        double dLng = lngMiles > 0 ? Math.min(180, radiusMiles / lngMiles) : 180;
+
+        List<Location> matches = new ArrayList<>();
+        for (Location location : withinBounds(lat - dLat, lng - dLng, lat + dLat, lng + dLng)) {
+            double distance = GeoUtils.distanceMiles(lat, lng, location.getLat(), location.getLng());
+            if (distance <= radiusMiles) {
+                matches.add(withDistance(location, distance));
+            }
+        }
+
+        matches.sort(BY_DISTANCE);
+        return matches;
+    }
+
+    /**
+     * The k locations closest to a point, nearest first
+     * Visits rings of cells outward from the point until nothing unvisited
+     * can be closer than the current k-th best
+     * @return Copies of the nearest locations with distance filled in
+     */
+    public List<Location> nearest(double lat, double lng, int k) {
+        if (k <= 0 || all.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Max-heap on distance holding the best k seen so far
+        PriorityQueue<double[]> best = new PriorityQueue<>(k, (a, b) -> Double.compare(b[0], a[0]));
+        Map<Integer, Location> byId = new HashMap<>();
+
+        int centerRow = row(lat);
+        int centerCol = col(lng);
+        int maxRing = Math.max(Math.max(Math.abs(centerRow - minRow), Math.abs(centerRow - maxRow)),
+                               Math.max(Math.abs(centerCol - minCol), Math.abs(centerCol - maxCol)));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            long side = 2L * ring + 1;
+            if (side * side > 4L * cells.size()) {
+                // The ring search has become more expensive than a full scan
+                best.clear();
+                byId.clear();
+                for (Location location : all) {
+                    offer(best, byId, k, location, lat, lng);
+                }
+                break;
+            }
+
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int col = centerCol - ring; col <= centerCol + ring; col += step) {
+                    List<Location> cell = cells.get(key(row, col));
+                    if (cell != null) {
+                        for (Location location : cell) {
+                            offer(best, byId, k, location, lat, lng);
+                        }
+                    }
+                }
+            }
+
+            if (best.size() == k && best.peek()[0] <= ringLowerBoundMiles(lat, ring)) {
+                break;
+            }
+        }
+
+        List<Location> result = new ArrayList<>(best.size());
+        for (double[] entry : best) {
+            result.add(withDistance(byId.get((int) entry[1]), entry[0]));
+        }
+        result.sort(BY_DISTANCE);
+        return result;
+    }
+
+    private static void offer(PriorityQueue<double[]> best, Map<Integer, Location> byId, int k,
+                              Location location, double lat, double lng) {
+        double distance = GeoUtils.distanceMiles(lat, lng, location.getLat(), location.getLng());
+        if (best.size() < k) {
+            best.add(new double[]{distance, location.getLocationID()});
+            byId.put(location.getLocationID(), location);
+        } else if (distance < best.peek()[0]) {
+            byId.remove((int) best.poll()[1]);
+            best.add(new double[]{distance, location.getLocationID()});
+            byId.put(location.getLocationID(), location);
+        }
+    }
+
+    /**
+     * Minimum distance from the query point to any cell outside the rings
+     * visited so far
+     */
+    private static double ringLowerBoundMiles(double lat, int ring) {
+        double widestLat = Math.min(89.9, Math.abs(lat) + (ring + 1) * CELL_SIZE_DEGREES);
+        double cellMiles = CELL_SIZE_DEGREES *
+            Math.min(GeoUtils.MILES_PER_DEGREE_LAT, GeoUtils.milesPerDegreeLng(widestLat));
+        return ring * cellMiles;
+    }
+
+    private static boolean inBounds(Location location, double south, double west, double north, double east) {
+        return location.getLat() >= south && location.getLat() <= north &&
+               location.getLng() >= west && location.getLng() <= east;
+    }
+
+    private static Location withDistance(Location location, double distance) {
+        Location copy = new Location(location);
+        copy.setDistance(GeoUtils.roundMiles(distance));
+        return copy;
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor((lat + 90) / CELL_SIZE_DEGREES);
+    }
+
+    private static int col(double lng) {
+        return (int) Math.floor((lng + 180) / CELL_SIZE_DEGREES);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
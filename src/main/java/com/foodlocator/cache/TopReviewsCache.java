@@ -0,0 +1,214 @@
+package com.foodlocator.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.foodlocator.dao.ReviewDAO;
+import com.foodlocator.model.Review;
+
+/**
+ * Per-location cache of the highest rated reviews, as shown in the location modal
+ * Each entry holds the exact top of the location's ranking (rating, then
+ * newest first) and is kept current incrementally by ReviewDAO's write
+ * paths, so it is only loaded from the database on first use or when
+ * deletes have drained it below what a request asks for
+ */
+public class TopReviewsCache {
+
+    // Reviews kept per location; extra rows absorb deletes without a reload
+    static final int CAPACITY = 10;
+
+    private static final Comparator<Review> RANKING =
+        Comparator.comparingDouble(Review::getRating).reversed()
+            .thenComparing(Review::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Comparator.comparingInt(Review::getReviewID).reversed());
+
+    private static final TopReviewsCache instance = new TopReviewsCache();
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every write so loads that raced with one aren't cached
+    private final AtomicLong writes = new AtomicLong();
+
+    private TopReviewsCache() {}
+
+    /**
+     * Get singleton instance of TopReviewsCache
+     * @return TopReviewsCache instance
+     */
+    public static TopReviewsCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Top reviews of a location, highest rated first
+     * @param locationID ID of the location
+     * @param limit Number of reviews wanted, at most CAPACITY
+     * @return Shared, read-only reviews; callers must not modify them.
+     *         null if they could not be loaded
+     */
+    public List<Review> getTopReviews(int locationID, int limit) {
+        int wanted = Math.max(0, Math.min(limit, CAPACITY));
+        Entry entry = entries.get(locationID);
+
+        if (entry == null || !entry.covers(wanted)) {
+            long generation = writes.get();
+            List<Review> loaded = new ReviewDAO().getTopReviewsByLocation(locationID, CAPACITY);
+            if (loaded == null) {
+                return null;
+            }
+            entry = Entry.of(loaded, loaded.size() < CAPACITY);
+            if (writes.get() == generation) {
+                entries.put(locationID, entry);
+            }
+        }
+
+        return entry.head(wanted);
+    }
+
+    /**
+     * Top reviews of several locations, loading every miss in one query
+     * @param locationIDs IDs of the locations
+     * @param limit Number of reviews wanted per location, at most CAPACITY
+     * @return Map of locationID to shared, read-only reviews; locations
+     *         that could not be loaded are missing
+     */
+    public Map<Integer, List<Review>> getTopReviews(Collection<Integer> locationIDs, int limit) {
+        int wanted = Math.max(0, Math.min(limit, CAPACITY));
+        Map<Integer, List<Review>> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        for (int locationID : locationIDs) {
+            Entry entry = entries.get(locationID);
+            if (entry != null && entry.covers(wanted)) {
+                result.put(locationID, entry.head(wanted));
+            } else if (!missing.contains(locationID)) {
+                missing.add(locationID);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long generation = writes.get();
+            Map<Integer, List<Review>> loaded = new ReviewDAO().getTopReviewsByLocations(missing, CAPACITY);
+            if (loaded != null) {
+                boolean cacheable = writes.get() == generation;
+                for (Map.Entry<Integer, List<Review>> reviews : loaded.entrySet()) {
+                    Entry entry = Entry.of(reviews.getValue(), reviews.getValue().size() < CAPACITY);
+                    if (cacheable) {
+                        entries.put(reviews.getKey(), entry);
+                    }
+                    result.put(reviews.getKey(), entry.head(wanted));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Write-through for a newly created review
+     * @param review Committed review with reviewID and createdAt set
+     */
+    public void reviewAdded(Review review) {
+        writes.incrementAndGet();
+        entries.computeIfPresent(review.getLocationID(), (id, entry) -> entry.with(new Review(review)));
+    }
+
+    /**
+     * Write-through for an edited review
+     * @param review Committed review with all fields set
+     */
+    public void reviewUpdated(Review review) {
+        writes.incrementAndGet();
+        entries.computeIfPresent(review.getLocationID(), (id, entry) -> entry.with(new Review(review)));
+    }
+
+    /**
+     * Write-through for a deleted review
+     * @param locationID ID of the reviewed location
+     * @param reviewID ID of the deleted review
+     */
+    public void reviewDeleted(int locationID, int reviewID) {
+        writes.incrementAndGet();
+        entries.computeIfPresent(locationID, (id, entry) -> entry.without(reviewID));
+    }
+
+    /**
+     * Forget a location entirely, e.g. after it was deleted
+     * @param locationID ID of the location
+     */
+    public void evict(int locationID) {
+        writes.incrementAndGet();
+        entries.remove(locationID);
+    }
+
+    /**
+     * Immutable top-of-ranking prefix for one location
+     * If complete, the list holds every review of the location; otherwise
+     * it is exactly the first reviews of the ranking and anything ranked
+     * below its last element is unknown
+     */
+    private static final class Entry {
+        private final List<Review> reviews;
+        private final boolean complete;
+
+        private Entry(List<Review> reviews, boolean complete) {
+            this.reviews = reviews;
+            this.complete = complete;
+        }
+
+        static Entry of(List<Review> reviews, boolean complete) {
+            List<Review> sorted = new ArrayList<>(reviews);
+            sorted.sort(RANKING);
+            return new Entry(Collections.unmodifiableList(sorted), complete);
+        }
+
+        boolean covers(int wanted) {
+            return complete || reviews.size() >= wanted;
+        }
+
+        List<Review> head(int count) {
+            return reviews.subList(0, Math.min(count, reviews.size()));
+        }
+
+        Entry with(Review review) {
+            // A load that ran after the INSERT committed may already hold it
+            Entry base = without(review.getReviewID());
+            if (base != this) {
+                return base.with(review);
+            }
+
+            boolean fitsPrefix = complete || (!reviews.isEmpty()
+                && RANKING.compare(review, reviews.get(reviews.size() - 1)) < 0);
+            if (!fitsPrefix) {
+                // Ranks below what we know; some unseen review may rank higher
+                return this;
+            }
+
+            List<Review> updated = new ArrayList<>(reviews);
+            int index = Collections.binarySearch(updated, review, RANKING);
+            updated.add(index < 0 ? -index - 1 : index, review);
+
+            boolean stillComplete = complete;
+            if (updated.size() > CAPACITY) {
+                updated.remove(updated.size() - 1);
+                stillComplete = false;
+            }
+            return new Entry(Collections.unmodifiableList(updated), stillComplete);
+        }
+
+        Entry without(int reviewID) {
+            List<Review> updated = new ArrayList<>(reviews);
+            if (!updated.removeIf(r -> r.getReviewID() == reviewID)) {
+                return this;
+            }
+            return new Entry(Collections.unmodifiableList(updated), complete);
+        }
+    }
+}
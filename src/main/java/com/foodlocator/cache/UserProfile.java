@@ -0,0 +1,31 @@
+package com.foodlocator.cache;
+
+/**
+ * Public, immutable view of a user as shown next to their reviews
+ */
+public final class UserProfile {
+
+    private final int userID;
+    private final String username;
+
+    public UserProfile(int userID, String username) {
+        this.userID = userID;
+        this.username = username;
+    }
+
+    public int getUserID() {
+        return userID;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "UserProfile{" +
+                "userID=" + userID +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,215 @@
+package com.foodlocator.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.foodlocator.dao.UserDAO;
+import com.foodlocator.model.User;
+
+/**
+ * Size-bounded LRU cache of user display profiles in front of UserDAO
+ * Split into independently locked segments so concurrent requests rarely
+ * contend. Misses are loaded in one batch query per call.
+ */
+public class UserProfileCache {
+
+    private static final int SEGMENTS = 16;
+    private static final UserProfileCache instance = new UserProfileCache();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Bumped on every invalidation so loads that raced with one aren't cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private UserProfileCache() {
+        setMaxSize(10000);
+    }
+
+    /**
+     * Get singleton instance of UserProfileCache
+     * @return UserProfileCache instance
+     */
+    public static UserProfileCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Set the maximum number of cached profiles; clears the cache
+     * @param maxSize Maximum entries across all segments
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        int perSegment = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Get a cached profile without touching the database
+     * @param userID ID of the user
+     * @return Cached profile or null
+     */
+    public UserProfile get(int userID) {
+        UserProfile profile = segmentFor(userID).get(userID);
+        if (profile != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return profile;
+    }
+
+    /**
+     * Resolve profiles for many users, loading all misses with one query
+     * @param userIDs IDs of the users
+     * @return Map of userID to profile for users that exist
+     */
+    public Map<Integer, UserProfile> resolve(Collection<Integer> userIDs) {
+        Map<Integer, UserProfile> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        for (int userID : userIDs) {
+            if (result.containsKey(userID) || missing.contains(userID)) {
+                continue;
+            }
+            UserProfile profile = get(userID);
+            if (profile != null) {
+                result.put(userID, profile);
+            } else {
+                missing.add(userID);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            Map<Integer, User> loaded = new UserDAO().getUsersByIds(missing);
+            boolean cacheable = invalidations.get() == generation;
+
+            for (User user : loaded.values()) {
+                UserProfile profile = new UserProfile(user.getUserID(), user.getName());
+                result.put(user.getUserID(), profile);
+                if (cacheable) {
+                    segmentFor(user.getUserID()).put(user.getUserID(), profile);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Display names for a set of users
+     * @param userIDs IDs of the users
+     * @return Map of userID to username; unknown users are missing
+     */
+    public Map<Integer, String> usernames(Collection<Integer> userIDs) {
+        Map<Integer, String> names = new HashMap<>();
+        for (UserProfile profile : resolve(userIDs).values()) {
+            if (profile.getUsername() != null) {
+                names.put(profile.getUserID(), profile.getUsername());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Add or replace a profile, e.g. right after signup or login
+     * @param userID ID of the user
+     * @param username Display name
+     */
+    public void put(int userID, String username) {
+        segmentFor(userID).put(userID, new UserProfile(userID, username));
+    }
+
+    /**
+     * Drop a profile after the user was updated or deleted
+     * @param userID ID of the user
+     */
+    public void invalidate(int userID) {
+        invalidations.incrementAndGet();
+        segmentFor(userID).remove(userID);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of profiles currently cached
+     * @return Entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "UserProfileCache{" +
+                "size=" + size() +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+
+    private Segment segmentFor(int userID) {
+        int h = userID * 0x9E3779B9;
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * One lock-guarded access-ordered map
+     */
+    private final class Segment {
+        private final LinkedHashMap<Integer, UserProfile> map;
+
+        Segment(int capacity) {
+            this.map = new LinkedHashMap<Integer, UserProfile>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, UserProfile> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized UserProfile get(int userID) {
+            return map.get(userID);
+        }
+
+        synchronized void put(int userID, UserProfile profile) {
+            map.put(userID, profile);
+        }
+
+        synchronized void remove(int userID) {
+            map.remove(userID);
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
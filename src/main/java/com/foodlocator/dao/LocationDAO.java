@@ -6,8 +6,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.cache.TopReviewsCache;
 import com.foodlocator.model.Location;
 import com.foodlocator.util.DatabaseConnection;
 
@@ -17,6 +25,14 @@ import com.foodlocator.util.DatabaseConnection;
  */
 public class LocationDAO {
     
+    // Location columns plus the precomputed rating aggregate, one row per location
+    private static final String SELECT_WITH_RATING =
+        "SELECT l.locationID, l.name, l.address, l.category, l.lat, l.lng, " +
+        "COALESCE(a.avgRating, 0) AS avgRating, " +
+        "COALESCE(a.reviewCount, 0) AS reviewCount " +
+        "FROM locations l " +
+        "LEFT JOIN location_ratings a ON a.locationID = l.locationID ";
+    
     private DatabaseConnection dbConnection;
     
     public LocationDAO() {
@@ -40,31 +56,34 @@ public class LocationDAO {
             
             int rowsAffected = pstmt.executeUpdate();
             
-            if (rowsAffected > 0) {
-                // Get the generated locationID
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        location.setLocationID(generatedKeys.getInt(1));
-                    }
+            if (rowsAffected == 0) {
+                return false;
+            }
+            // Get the generated locationID
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    location.setLocationID(generatedKeys.getInt(1));
                 }
-                return true;
             }
             
         } catch (SQLException e) {
             System.err.println("Error creating location: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
         
-        return false;
+        // With the connection back in the pool, since the refresh borrows one
+        LocationCatalog.getInstance().refreshLocation(location.getLocationID());
+        return true;
     }
     
     /**
-     * Get location by locationID
+     * Get location by locationID, including its rating and review count
      * @param locationID ID of the location
      * @return Location object or null if not found
      */
     public Location getLocationById(int locationID) {
-        String sql = "SELECT * FROM Locations WHERE locationID = ?";
+        String sql = SELECT_WITH_RATING + "WHERE l.locationID = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -73,12 +92,7 @@ public class LocationDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Location(
-                        rs.getInt("locationID"),
-                        rs.getString("name"),
-                        rs.getString("address"),
-                        rs.getString("category")
-                    );
+                    return mapLocationWithRating(rs);
                 }
             }
             
@@ -91,42 +105,67 @@ public class LocationDAO {
     }
     
     /**
-     * Get all locations
-     * @return List of all locations
+     * Get several locations by ID in one query, including rating and review count
+     * @param locationIDs IDs of the locations
+     * @return Map of locationID to Location; unknown IDs are missing.
+     *         null if the query failed
+     */
+    public Map<Integer, Location> getLocationsByIds(Collection<Integer> locationIDs) {
+        Map<Integer, Location> locations = new HashMap<>();
+        Set<Integer> ids = new LinkedHashSet<>(locationIDs);
+        if (ids.isEmpty()) {
+            return locations;
+        }
+        
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = SELECT_WITH_RATING + "WHERE l.locationID IN (" + placeholders + ")";
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (int id : ids) {
+                pstmt.setInt(index++, id);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Location location = mapLocationWithRating(rs);
+                    locations.put(location.getLocationID(), location);
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting locations by IDs: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        
+        return locations;
+    }
+    
+    /**
+     * Get all locations with their average rating and review count
+     * Ratings come from the location_ratings aggregate, so the listing is
+     * one query that never scans reviews
+     * @return List of all locations, or null if the query failed
      */
     public List<Location> getAllLocations() {
         List<Location> locations = new ArrayList<>();
-        String sql = "SELECT * FROM Locations ORDER BY name";
+        String sql = SELECT_WITH_RATING + "ORDER BY l.name";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
             while (rs.next()) {
-                Location loc = new Location(
-                    rs.getInt("locationID"),
-                    rs.getString("name"),
-                    rs.getString("address"),
-                    rs.getString("category"),
-                    rs.getDouble("lat"),
-                    rs.getDouble("lng")
-                );
-                
-                // Get average rating from reviews
-                double avgRating = getAverageRating(rs.getInt("locationID"));
-                loc.setRating(avgRating);
-                loc.setDescription(rs.getString("category"));
-                
-                // Get review count
-                int reviewCount = getReviewCount(rs.getInt("locationID"));
-                loc.setReviewCount(reviewCount);
-                
-                locations.add(loc);
+                locations.add(mapLocationWithRating(rs));
             }
             
         } catch (SQLException e) {
             System.err.println("Error getting all locations: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
         
         return locations;
@@ -214,15 +253,19 @@ public class LocationDAO {
             pstmt.setString(3, location.getCategory());
             pstmt.setInt(4, location.getLocationID());
             
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
             
         } catch (SQLException e) {
             System.err.println("Error updating location: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
         
-        return false;
+        // With the connection back in the pool, since the refresh borrows one
+        LocationCatalog.getInstance().refreshLocation(location.getLocationID());
+        return true;
     }
     
     /**
@@ -239,6 +282,10 @@ public class LocationDAO {
             pstmt.setInt(1, locationID);
             
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                TopReviewsCache.getInstance().evict(locationID);
+                LocationCatalog.getInstance().removeLocation(locationID);
+            }
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -279,36 +326,8 @@ public class LocationDAO {
      * @return Object array [Location, avgRating] or null if not found
      */
     public Object[] getLocationWithRating(int locationID) {
-        String sql = "SELECT l.*, COALESCE(AVG(r.rating), 0) as avgRating " +
-                    "FROM Locations l " +
-                    "LEFT JOIN Reviews r ON l.locationID = r.locationID " +
-                    "WHERE l.locationID = ? " +
-                    "GROUP BY l.locationID";
-        
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, locationID);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Location location = new Location(
-                        rs.getInt("locationID"),
-                        rs.getString("name"),
-                        rs.getString("address"),
-                        rs.getString("category")
-                    );
-                    double avgRating = rs.getDouble("avgRating");
-                    return new Object[]{location, avgRating};
-                }
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting location with rating: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return null;
+        Location location = getLocationById(locationID);
+        return location != null ? new Object[]{location, location.getRating()} : null;
     }
     
     /**
@@ -317,7 +336,7 @@ public class LocationDAO {
      * @return Average rating or 0.0 if no reviews
      */
     public double getAverageRating(int locationID) {
-        String sql = "SELECT AVG(rating) as avgRating FROM reviews WHERE locationID = ?";
+        String sql = "SELECT avgRating FROM location_ratings WHERE locationID = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -326,8 +345,7 @@ public class LocationDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    double rating = rs.getDouble("avgRating");
-                    return Double.isNaN(rating) || rating == 0 ? 0.0 : Math.round(rating * 10.0) / 10.0;
+                    return rs.getDouble("avgRating");
                 }
             }
             
@@ -344,7 +362,7 @@ public class LocationDAO {
      * @return Number of reviews for the location
      */
     public int getReviewCount(int locationID) {
-        String sql = "SELECT COUNT(*) as count FROM reviews WHERE locationID = ?";
+        String sql = "SELECT reviewCount FROM location_ratings WHERE locationID = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -353,7 +371,7 @@ public class LocationDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt("count");
+                    return rs.getInt("reviewCount");
                 }
             }
             
@@ -363,4 +381,22 @@ public class LocationDAO {
         
         return 0;
     }
+    
+    /**
+     * Build a Location from a row selected with SELECT_WITH_RATING
+     */
+    private Location mapLocationWithRating(ResultSet rs) throws SQLException {
+        Location loc = new Location(
+            rs.getInt("locationID"),
+            rs.getString("name"),
+            rs.getString("address"),
+            rs.getString("category"),
+            rs.getDouble("lat"),
+            rs.getDouble("lng")
+        );
+        loc.setRating(rs.getDouble("avgRating"));
+        loc.setDescription(rs.getString("category"));
+        loc.setReviewCount(rs.getInt("reviewCount"));
+        return loc;
+    }
 }
@@ -0,0 +1,206 @@
+package com.foodlocator.dao;
+
+import com.foodlocator.model.RatingAggregate;
+import com.foodlocator.util.DatabaseConnection;
+
+import java.sql.*;
+
+/**
+ * Data Access Object for the location_ratings table
+ * Keeps per-location review count, rating sum, average and star histogram
+ * up to date so reads never have to aggregate over reviews
+ */
+public class RatingAggregateDAO {
+
+    private static final String REBUILD_SELECT =
+        "SELECT l.locationID, " +
+        "COUNT(r.reviewID), " +
+        "COALESCE(SUM(r.rating), 0), " +
+        "COALESCE(ROUND(AVG(r.rating), 1), 0), " +
+        "COALESCE(SUM(FLOOR(r.rating) <= 1), 0), " +
+        "COALESCE(SUM(FLOOR(r.rating) = 2), 0), " +
+        "COALESCE(SUM(FLOOR(r.rating) = 3), 0), " +
+        "COALESCE(SUM(FLOOR(r.rating) = 4), 0), " +
+        "COALESCE(SUM(FLOOR(r.rating) >= 5), 0) " +
+        "FROM locations l " +
+        "LEFT JOIN reviews r ON r.locationID = l.locationID ";
+
+    private static final String INSERT_COLUMNS =
+        "INSERT INTO location_ratings " +
+        "(locationID, reviewCount, ratingSum, avgRating, stars1, stars2, stars3, stars4, stars5) ";
+
+    private DatabaseConnection dbConnection;
+
+    public RatingAggregateDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Get the rating aggregate for a location
+     * @param locationID ID of the location
+     * @return RatingAggregate, with zero counts if the location has no reviews yet;
+     *         null if the query failed
+     */
+    public RatingAggregate getByLocation(int locationID) {
+        String sql = "SELECT * FROM location_ratings WHERE locationID = ?";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, locationID);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapAggregate(rs);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting rating aggregate: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+
+        RatingAggregate empty = new RatingAggregate();
+        empty.setLocationID(locationID);
+        return empty;
+    }
+
+    /**
+     * Count a new review in the location's aggregate
+     * Must run on the same connection and transaction as the review insert
+     * @param conn Connection with the open transaction
+     * @param locationID ID of the reviewed location
+     * @param rating Rating of the new review
+     * @throws SQLException if the update fails
+     */
+    public void addRating(Connection conn, int locationID, double rating) throws SQLException {
+        int[] stars = new int[5];
+        stars[RatingAggregate.starBucket(rating) - 1] = 1;
+        applyDelta(conn, locationID, 1, rating, stars);
+    }
+
+    /**
+     * Remove a deleted review from the location's aggregate
+     * @param conn Connection with the open transaction
+     * @param locationID ID of the reviewed location
+     * @param rating Rating of the deleted review
+     * @throws SQLException if the update fails
+     */
+    public void removeRating(Connection conn, int locationID, double rating) throws SQLException {
+        int[] stars = new int[5];
+        stars[RatingAggregate.starBucket(rating) - 1] = -1;
+        applyDelta(conn, locationID, -1, -rating, stars);
+    }
+
+    /**
+     * Swap an edited review's old rating for its new one
+     * @param conn Connection with the open transaction
+     * @param locationID ID of the reviewed location
+     * @param oldRating Rating before the edit
+     * @param newRating Rating after the edit
+     * @throws SQLException if the update fails
+     */
+    public void replaceRating(Connection conn, int locationID, double oldRating, double newRating) throws SQLException {
+        int[] stars = new int[5];
+        stars[RatingAggregate.starBucket(oldRating) - 1] -= 1;
+        stars[RatingAggregate.starBucket(newRating) - 1] += 1;
+        applyDelta(conn, locationID, 0, newRating - oldRating, stars);
+    }
+
+    /**
+     * Recompute every location's aggregate from the reviews table
+     * Used to backfill the table or repair drift
+     * @return Number of locations rebuilt, or -1 on failure
+     */
+    public int rebuildAll() {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM location_ratings");
+                int rows = stmt.executeUpdate(INSERT_COLUMNS + REBUILD_SELECT + "GROUP BY l.locationID");
+                conn.commit();
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding rating aggregates: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Recompute a single location's aggregate from the reviews table
+     * @param locationID ID of the location
+     * @return true if successful, false otherwise
+     */
+    public boolean rebuildLocation(int locationID) {
+        String sql = "REPLACE INTO location_ratings " +
+                    "(locationID, reviewCount, ratingSum, avgRating, stars1, stars2, stars3, stars4, stars5) " +
+                    REBUILD_SELECT + "WHERE l.locationID = ? GROUP BY l.locationID";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, locationID);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding rating aggregate: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    /**
+     * Apply a change to a location's aggregate, creating the row if needed
+     * Columns are assigned left to right, so avgRating sees the new sum and count
+     */
+    private void applyDelta(Connection conn, int locationID, int countDelta, double sumDelta, int[] stars)
+            throws SQLException {
+        try (PreparedStatement ensure = conn.prepareStatement(
+                "INSERT IGNORE INTO location_ratings (locationID) VALUES (?)")) {
+            ensure.setInt(1, locationID);
+            ensure.executeUpdate();
+        }
+
+        String sql = "UPDATE location_ratings SET " +
+                    "reviewCount = reviewCount + ?, " +
+                    "ratingSum = ratingSum + ?, " +
+                    "stars1 = stars1 + ?, stars2 = stars2 + ?, stars3 = stars3 + ?, " +
+                    "stars4 = stars4 + ?, stars5 = stars5 + ?, " +
+                    "avgRating = IF(reviewCount > 0, ROUND(ratingSum / reviewCount, 1), 0) " +
+                    "WHERE locationID = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, countDelta);
+            pstmt.setDouble(2, sumDelta);
+            for (int i = 0; i < 5; i++) {
+                pstmt.setInt(3 + i, stars[i]);
+            }
+            pstmt.setInt(8, locationID);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private RatingAggregate mapAggregate(ResultSet rs) throws SQLException {
+        return new RatingAggregate(
+            rs.getInt("locationID"),
+            rs.getInt("reviewCount"),
+            rs.getDouble("ratingSum"),
+            rs.getDouble("avgRating"),
+            new int[]{
+                rs.getInt("stars1"),
+                rs.getInt("stars2"),
+                rs.getInt("stars3"),
+                rs.getInt("stars4"),
+                rs.getInt("stars5")
+            }
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package com.foodlocator.dao;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+import com.foodlocator.model.Review;
+
+/**
+ * Position in a sorted review list for keyset ("load more") pagination
+ * Holds the sort keys of the last review a client has seen and is passed
+ * around as an opaque URL-safe token
+ */
+public final class ReviewCursor {
+
+    private final ReviewSort sort;
+    private final BigDecimal rating;
+    private final Timestamp createdAt;
+    private final int reviewID;
+
+    private ReviewCursor(ReviewSort sort, BigDecimal rating, Timestamp createdAt, int reviewID) {
+        this.sort = sort;
+        this.rating = rating;
+        this.createdAt = createdAt;
+        this.reviewID = reviewID;
+    }
+
+    /**
+     * Cursor pointing just past a review
+     * @param sort Order the review list is in
+     * @param last Last review returned to the client
+     * @return Cursor for the next page
+     */
+    public static ReviewCursor after(ReviewSort sort, Review last) {
+        return new ReviewCursor(sort, BigDecimal.valueOf(last.getRating()), last.getCreatedAt(), last.getReviewID());
+    }
+
+    /**
+     * Decode a token produced by encode()
+     * @param token Opaque cursor token
+     * @return Decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ReviewCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ReviewSort sort = ReviewSort.fromParam(parts[0]);
+            if (!sort.getParam().equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ReviewCursor(sort, new BigDecimal(parts[1]),
+                    new Timestamp(Long.parseLong(parts[2])), Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and bad base64
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encode this cursor as an opaque URL-safe token
+     * @return Cursor token
+     */
+    public String encode() {
+        String raw = sort.getParam() + ":" + rating.toPlainString() + ":" + createdAt.getTime() + ":" + reviewID;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Bind this cursor's keys to the placeholders of sort.getKeysetPredicate()
+     * @param pstmt Statement to bind
+     * @param index Index of the first placeholder
+     * @return Index of the next unbound placeholder
+     */
+    int bind(PreparedStatement pstmt, int index) throws SQLException {
+        if (sort.isRatingOrdered()) {
+            pstmt.setBigDecimal(index++, rating);
+            pstmt.setBigDecimal(index++, rating);
+        }
+        pstmt.setTimestamp(index++, createdAt);
+        pstmt.setTimestamp(index++, createdAt);
+        pstmt.setInt(index++, reviewID);
+        return index;
+    }
+
+    public ReviewSort getSort() {
+        return sort;
+    }
+}
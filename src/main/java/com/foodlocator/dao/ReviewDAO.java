@@ -1,11 +1,21 @@
 package com.foodlocator.dao;
 
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.cache.TopReviewsCache;
+import com.foodlocator.model.RatingAggregate;
 import com.foodlocator.model.Review;
 import com.foodlocator.util.DatabaseConnection;
+import com.foodlocator.util.EventBroadcaster;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Data Access Object for Review operations
@@ -14,46 +24,65 @@ import java.util.List;
 public class ReviewDAO {
     
     private DatabaseConnection dbConnection;
+    private RatingAggregateDAO ratingAggregateDAO;
     
     public ReviewDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.ratingAggregateDAO = new RatingAggregateDAO();
     }
     
     /**
      * Create a new review in the database
+     * The location's rating aggregate is updated in the same transaction
      * @param review Review object to insert
      * @return true if successful, false otherwise
      */
     public boolean createReview(Review review) {
-        String sql = "INSERT INTO Reviews (locationID, userID, rating, title, body) VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO reviews (locationID, userID, rating, title, body) VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, review.getLocationID());
-            pstmt.setInt(2, review.getUserID());
-            pstmt.setDouble(3, review.getRating());
-            pstmt.setString(4, review.getTitle());
-            pstmt.setString(5, review.getBody());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            
-            if (rowsAffected > 0) {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setInt(1, review.getLocationID());
+                pstmt.setInt(2, review.getUserID());
+                pstmt.setDouble(3, review.getRating());
+                pstmt.setString(4, review.getTitle());
+                pstmt.setString(5, review.getBody());
+                
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                
                 // Get the generated reviewID
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         review.setReviewID(generatedKeys.getInt(1));
                     }
                 }
-                return true;
+                review.setCreatedAt(readCreatedAt(conn, review.getReviewID()));
+                
+                ratingAggregateDAO.addRating(conn, review.getLocationID(), review.getRating());
+                conn.commit();
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
             
         } catch (SQLException e) {
             System.err.println("Error creating review: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
         
-        return false;
+        // With the connection back in the pool, since these may borrow one
+        TopReviewsCache.getInstance().reviewAdded(review);
+        LocationCatalog.getInstance().refreshLocation(review.getLocationID());
+        EventBroadcaster.getInstance().reviewCreated(review);
+        EventBroadcaster.getInstance().ratingChanged(review.getLocationID());
+        return true;
     }
     
     /**
@@ -127,6 +156,83 @@ public class ReviewDAO {
         return reviews;
     }
     
+    /**
+     * Get one page of reviews for a location, sorted and paged by MySQL
+     * @param locationID ID of the location
+     * @param page Page number, starting at 1
+     * @param pageSize Number of reviews per page
+     * @param sort Sort order
+     * @param projection Columns to read
+     * @return Reviews on the requested page
+     */
+    public List<Review> getReviewsByLocation(int locationID, int page, int pageSize, ReviewSort sort,
+                                             ReviewProjection projection) {
+        List<Review> reviews = new ArrayList<>();
+        String sql = "SELECT " + projection.columns(null) + " FROM reviews WHERE locationID = ? " +
+                    "ORDER BY " + sort.getOrderBy() + " LIMIT ? OFFSET ?";
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, locationID);
+            pstmt.setInt(2, pageSize);
+            pstmt.setLong(3, (long) (page - 1) * pageSize);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reviews.add(projection.read(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting page of reviews by location: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return reviews;
+    }
+    
+    /**
+     * Get the reviews for a location that follow a cursor (keyset pagination)
+     * Cost does not grow with how deep the client has scrolled
+     * @param locationID ID of the location
+     * @param after Cursor of the last review already seen, or null for the first page
+     * @param limit Maximum number of reviews to return
+     * @param sort Sort order, must match the cursor's
+     * @param projection Columns to read
+     * @return Up to limit reviews following the cursor
+     */
+    public List<Review> getReviewsByLocation(int locationID, ReviewCursor after, int limit, ReviewSort sort,
+                                             ReviewProjection projection) {
+        List<Review> reviews = new ArrayList<>();
+        String sql = "SELECT " + projection.columns(null) + " FROM reviews WHERE locationID = ? " +
+                    (after != null ? "AND " + sort.getKeysetPredicate() + " " : "") +
+                    "ORDER BY " + sort.getOrderBy() + " LIMIT ?";
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            pstmt.setInt(index++, locationID);
+            if (after != null) {
+                index = after.bind(pstmt, index);
+            }
+            pstmt.setInt(index, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reviews.add(projection.read(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting reviews by location after cursor: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return reviews;
+    }
+    
     // /**
     //  * Get all reviews by a specific user
     //  * @param userID ID of the user
@@ -164,14 +270,15 @@ public class ReviewDAO {
     // }
     
     /**
-     * Get top N reviews for a location (sorted by rating)
+     * Get top N reviews for a location (by rating, then newest first)
      * @param locationID ID of the location
      * @param limit Number of reviews to return
-     * @return List of top reviews
+     * @return List of top reviews, or null if the query failed
      */
     public List<Review> getTopReviewsByLocation(int locationID, int limit) {
         List<Review> reviews = new ArrayList<>();
-        String sql = "SELECT * FROM Reviews WHERE locationID = ? ORDER BY rating DESC, createdAt DESC LIMIT ?";
+        String sql = "SELECT * FROM reviews WHERE locationID = ? " +
+                    "ORDER BY " + ReviewSort.RATING_HIGH.getOrderBy() + " LIMIT ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -196,114 +303,237 @@ public class ReviewDAO {
         } catch (SQLException e) {
             System.err.println("Error getting top reviews: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
         
         return reviews;
     }
     
     /**
-     * Get average rating for a location
-     * @param locationID ID of the location
-     * @return Average rating or 0 if no reviews
+     * Get the top reviews of several locations in one query
+     * Ranks each location's reviews with ROW_NUMBER() in the same order as
+     * getTopReviewsByLocation and keeps the first limit of each
+     * @param locationIDs IDs of the locations
+     * @param limit Maximum reviews per location
+     * @return Map of locationID to its reviews, highest rated first; every
+     *         requested ID is present. null if the query failed
      */
-    public double getAverageRating(int locationID) {
-        String sql = "SELECT AVG(rating) as avgRating FROM Reviews WHERE locationID = ?";
+    public Map<Integer, List<Review>> getTopReviewsByLocations(Collection<Integer> locationIDs, int limit) {
+        Map<Integer, List<Review>> reviews = new HashMap<>();
+        Set<Integer> ids = new LinkedHashSet<>(locationIDs);
+        for (int id : ids) {
+            reviews.put(id, new ArrayList<>());
+        }
+        if (ids.isEmpty()) {
+            return reviews;
+        }
+        
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT * FROM (" +
+                    "SELECT r.*, ROW_NUMBER() OVER (PARTITION BY locationID ORDER BY " +
+                    ReviewSort.RATING_HIGH.getOrderBy() + ") AS rankInLocation " +
+                    "FROM reviews r WHERE locationID IN (" + placeholders + ")" +
+                    ") ranked WHERE rankInLocation <= ? " +
+                    "ORDER BY locationID, rankInLocation";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, locationID);
+            int index = 1;
+            for (int id : ids) {
+                pstmt.setInt(index++, id);
+            }
+            pstmt.setInt(index, limit);
             
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble("avgRating");
+                while (rs.next()) {
+                    reviews.get(rs.getInt("locationID")).add(new Review(
+                        rs.getInt("reviewID"),
+                        rs.getInt("locationID"),
+                        rs.getInt("userID"),
+                        rs.getDouble("rating"),
+                        rs.getString("title"),
+                        rs.getString("body"),
+                        rs.getTimestamp("createdAt")
+                    ));
                 }
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting average rating: " + e.getMessage());
+            System.err.println("Error getting top reviews by locations: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
         
-        return 0.0;
+        return reviews;
+    }
+    
+    /**
+     * Get average rating for a location
+     * @param locationID ID of the location
+     * @return Average rating or 0 if no reviews or the query failed
+     */
+    public double getAverageRating(int locationID) {
+        RatingAggregate aggregate = ratingAggregateDAO.getByLocation(locationID);
+        return aggregate != null ? aggregate.getAvgRating() : 0;
     }
     
     /**
      * Get review count for a location
      * @param locationID ID of the location
-     * @return Number of reviews
+     * @return Number of reviews, or 0 if the query failed
      */
     public int getReviewCount(int locationID) {
-        String sql = "SELECT COUNT(*) as reviewCount FROM Reviews WHERE locationID = ?";
-        
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, locationID);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("reviewCount");
-                }
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting review count: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return 0;
+        RatingAggregate aggregate = ratingAggregateDAO.getByLocation(locationID);
+        return aggregate != null ? aggregate.getReviewCount() : 0;
     }
     
     /**
      * Update review
+     * The location's rating aggregate is adjusted in the same transaction
      * @param review Review object with updated information
      * @return true if successful, false otherwise
      */
     public boolean updateReview(Review review) {
-        String sql = "UPDATE Reviews SET rating = ?, title = ?, body = ? WHERE reviewID = ?";
+        String sql = "UPDATE reviews SET rating = ?, title = ?, body = ? WHERE reviewID = ?";
+        Review existing;
+        boolean ratingChanged;
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDouble(1, review.getRating());
-            pstmt.setString(2, review.getTitle());
-            pstmt.setString(3, review.getBody());
-            pstmt.setInt(4, review.getReviewID());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try {
+                existing = lockReview(conn, review.getReviewID());
+                if (existing == null) {
+                    conn.rollback();
+                    return false;
+                }
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setDouble(1, review.getRating());
+                    pstmt.setString(2, review.getTitle());
+                    pstmt.setString(3, review.getBody());
+                    pstmt.setInt(4, review.getReviewID());
+                    pstmt.executeUpdate();
+                }
+                
+                ratingChanged = existing.getRating() != review.getRating();
+                if (ratingChanged) {
+                    ratingAggregateDAO.replaceRating(conn, existing.getLocationID(),
+                        existing.getRating(), review.getRating());
+                }
+                conn.commit();
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
             
         } catch (SQLException e) {
             System.err.println("Error updating review: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
         
-        return false;
+        // With the connection back in the pool, since these may borrow one
+        existing.setRating(review.getRating());
+        existing.setTitle(review.getTitle());
+        existing.setBody(review.getBody());
+        TopReviewsCache.getInstance().reviewUpdated(existing);
+        LocationCatalog.getInstance().refreshLocation(existing.getLocationID());
+        if (ratingChanged) {
+            EventBroadcaster.getInstance().ratingChanged(existing.getLocationID());
+        }
+        return true;
     }
     
     /**
      * Delete review by ID
+     * The location's rating aggregate is adjusted in the same transaction
      * @param reviewID ID of the review to delete
      * @return true if successful, false otherwise
      */
     public boolean deleteReview(int reviewID) {
-        String sql = "DELETE FROM Reviews WHERE reviewID = ?";
+        String sql = "DELETE FROM reviews WHERE reviewID = ?";
+        Review existing;
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, reviewID);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try {
+                existing = lockReview(conn, reviewID);
+                if (existing == null) {
+                    conn.rollback();
+                    return false;
+                }
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, reviewID);
+                    pstmt.executeUpdate();
+                }
+                
+                ratingAggregateDAO.removeRating(conn, existing.getLocationID(), existing.getRating());
+                conn.commit();
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
             
         } catch (SQLException e) {
             System.err.println("Error deleting review: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
         
-        return false;
+        // With the connection back in the pool, since these may borrow one
+        TopReviewsCache.getInstance().reviewDeleted(existing.getLocationID(), reviewID);
+        LocationCatalog.getInstance().refreshLocation(existing.getLocationID());
+        EventBroadcaster.getInstance().ratingChanged(existing.getLocationID());
+        return true;
+    }
+    
+    /**
+     * Read a review, locking the row until the transaction ends
+     * @return Review or null if not found
+     */
+    private Review lockReview(Connection conn, int reviewID) throws SQLException {
+        String sql = "SELECT * FROM reviews WHERE reviewID = ? FOR UPDATE";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, reviewID);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Review(
+                        rs.getInt("reviewID"),
+                        rs.getInt("locationID"),
+                        rs.getInt("userID"),
+                        rs.getDouble("rating"),
+                        rs.getString("title"),
+                        rs.getString("body"),
+                        rs.getTimestamp("createdAt")
+                    );
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Read the database-assigned timestamp of a review just inserted on this connection
+     * @return createdAt, or null if the row is not visible
+     */
+    private Timestamp readCreatedAt(Connection conn, int reviewID) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT createdAt FROM reviews WHERE reviewID = ?")) {
+            pstmt.setInt(1, reviewID);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getTimestamp("createdAt") : null;
+            }
+        }
     }
     
     /**
@@ -367,59 +597,90 @@ public class ReviewDAO {
         return reviews;
     }
 
-    public void updateLocationRating(int locationID) {
-        String query = "UPDATE Location SET rating = " +
-                    "(SELECT AVG(rating) FROM Review WHERE locationID = ? AND isVisible = 1) " +
-                    "WHERE locationID = ?";
+    public List<Review> getReviewsByUser(int userID) {
+        List<Review> reviews = new ArrayList<>();
+        String query = "SELECT r.*, l.name as locationName " +
+                    "FROM Reviews r " +
+                    "JOIN Locations l ON r.locationID = l.locationID " +
+                    "WHERE r.userID = ? " +
+                    "ORDER BY r.createdAt DESC";
         
         try (Connection conn = DatabaseConnection.getInstance().getConnection();
             PreparedStatement ps = conn.prepareStatement(query)) {
             
-            ps.setInt(1, locationID);
-            ps.setInt(2, locationID);
-            ps.executeUpdate();
+            ps.setInt(1, userID);
+            
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Review review = new Review(
+                        rs.getInt("locationID"),
+                        rs.getInt("userID"),
+                        rs.getDouble("rating"),
+                        rs.getString("title"),
+                        rs.getString("body")
+                    );
+                    review.setReviewID(rs.getInt("reviewID"));
+                    review.setCreatedAt(rs.getTimestamp("createdAt"));
+                    review.setLocationName(rs.getString("locationName"));
+                    reviews.add(review);
+                }
+            }
             
         } catch (SQLException e) {
-            System.err.println("Error updating location rating: " + e.getMessage());
+            System.err.println("Error getting reviews by user: " + e.getMessage());
             e.printStackTrace();
         }
+        
+        return reviews;
     }
 
-    public List<Review> getReviewsByUser(int userID) {
+    /**
+     * Get a user's reviews, newest first, that follow a cursor (keyset pagination)
+     * @param userID ID of the user
+     * @param after Cursor of the last review already seen, or null for the first page
+     * @param limit Maximum number of reviews to return
+     * @return Up to limit reviews with locationName set
+     */
+    public List<Review> getReviewsByUser(int userID, ReviewCursor after, int limit) {
         List<Review> reviews = new ArrayList<>();
         String query = "SELECT r.*, l.name as locationName " +
-                    "FROM Reviews r " +
-                    "JOIN Locations l ON r.locationID = l.locationID " +
+                    "FROM reviews r " +
+                    "JOIN locations l ON r.locationID = l.locationID " +
                     "WHERE r.userID = ? " +
-                    "ORDER BY r.createdAt DESC";
+                    (after != null ? "AND " + ReviewSort.RECENT.getKeysetPredicate() + " " : "") +
+                    "ORDER BY " + ReviewSort.RECENT.getOrderBy() + " LIMIT ?";
         
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dbConnection.getConnection();
             PreparedStatement ps = conn.prepareStatement(query)) {
             
-            ps.setInt(1, userID);
-            ResultSet rs = ps.executeQuery();
+            int index = 1;
+            ps.setInt(index++, userID);
+            if (after != null) {
+                index = after.bind(ps, index);
+            }
+            ps.setInt(index, limit);
             
-            while (rs.next()) {
-                Review review = new Review(
-                    rs.getInt("locationID"),
-                    rs.getInt("userID"),
-                    rs.getDouble("rating"),
-                    rs.getString("title"),
-                    rs.getString("body")
-                );
-                review.setReviewID(rs.getInt("reviewID"));
-                review.setCreatedAt(rs.getTimestamp("createdAt"));
-                review.setLocationName(rs.getString("locationName"));
-                reviews.add(review);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Review review = new Review(
+                        rs.getInt("reviewID"),
+                        rs.getInt("locationID"),
+                        rs.getInt("userID"),
+                        rs.getDouble("rating"),
+                        rs.getString("title"),
+                        rs.getString("body"),
+                        rs.getTimestamp("createdAt")
+                    );
+                    review.setLocationName(rs.getString("locationName"));
+                    reviews.add(review);
+                }
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting reviews by user: " + e.getMessage());
+            System.err.println("Error getting reviews by user after cursor: " + e.getMessage());
             e.printStackTrace();
         }
         
         return reviews;
     }
-
-    
 }
@@ -0,0 +1,84 @@
+package com.foodlocator.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.foodlocator.model.Review;
+
+/**
+ * Columns a review query reads
+ * The keys every query needs for ordering, cursors and authors are always
+ * read; title and body only when the response shows them. A body excerpt is
+ * cut by MySQL, so the rest of the text never leaves the database. The
+ * excerpt keeps one character more than asked for, so the caller can tell
+ * whether anything was cut (see ReviewDTO).
+ */
+public final class ReviewProjection {
+
+    public static final ReviewProjection ALL = new ReviewProjection(true, true, 0);
+
+    private final boolean title;
+    private final boolean body;
+    // 0 reads the full body
+    private final int excerptLength;
+
+    private ReviewProjection(boolean title, boolean body, int excerptLength) {
+        this.title = title;
+        this.body = body;
+        this.excerptLength = excerptLength;
+    }
+
+    /**
+     * @param title Whether to read the title
+     * @param body Whether to read the body
+     * @param excerptLength Characters of body wanted, or 0 for the full body
+     * @return ReviewProjection
+     */
+    public static ReviewProjection of(boolean title, boolean body, int excerptLength) {
+        if (title && body && excerptLength <= 0) {
+            return ALL;
+        }
+        return new ReviewProjection(title, body, Math.max(0, excerptLength));
+    }
+
+    /**
+     * SELECT list for the reviews table
+     * @param alias Table alias to qualify columns with, or null
+     * @return Comma-separated columns
+     */
+    String columns(String alias) {
+        String prefix = alias != null ? alias + "." : "";
+        StringBuilder sql = new StringBuilder();
+        sql.append(prefix).append("reviewID, ")
+           .append(prefix).append("locationID, ")
+           .append(prefix).append("userID, ")
+           .append(prefix).append("rating, ")
+           .append(prefix).append("createdAt");
+        if (title) {
+            sql.append(", ").append(prefix).append("title");
+        }
+        if (body) {
+            if (excerptLength > 0) {
+                sql.append(", LEFT(").append(prefix).append("body, ").append(excerptLength + 1).append(") AS body");
+            } else {
+                sql.append(", ").append(prefix).append("body");
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Map the current row; columns that were not read are left null
+     */
+    Review read(ResultSet rs) throws SQLException {
+        return new Review(
+            rs.getInt("reviewID"),
+            rs.getInt("locationID"),
+            rs.getInt("userID"),
+            rs.getDouble("rating"),
+            title ? rs.getString("title") : null,
+            body ? rs.getString("body") : null,
+            rs.getTimestamp("createdAt")
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package com.foodlocator.dao;
+
+/**
+ * Sort orders supported by the paged review queries
+ * Every order ends with reviewID so pages never overlap or skip rows
+ */
+public enum ReviewSort {
+    RECENT("recent", "createdAt DESC, reviewID DESC", null),
+    RATING_HIGH("rating-high", "rating DESC, createdAt DESC, reviewID DESC", "<"),
+    RATING_LOW("rating-low", "rating ASC, createdAt DESC, reviewID DESC", ">"),
+    // There is no helpful vote yet, so rating stands in for it
+    HELPFUL("helpful", "rating DESC, createdAt DESC, reviewID DESC", "<");
+
+    // Rows after (createdAt, reviewID) in createdAt DESC, reviewID DESC order
+    private static final String RECENT_AFTER =
+        "(createdAt < ? OR (createdAt = ? AND reviewID < ?))";
+
+    private final String param;
+    private final String orderBy;
+    private final String keysetPredicate;
+
+    ReviewSort(String param, String orderBy, String ratingComparison) {
+        this.param = param;
+        this.orderBy = orderBy;
+        this.keysetPredicate = ratingComparison == null
+            ? RECENT_AFTER
+            : "(rating " + ratingComparison + " ? OR (rating = ? AND " + RECENT_AFTER + "))";
+    }
+
+    /**
+     * Value of the sortBy request parameter for this order
+     * @return Parameter value, e.g. "rating-high"
+     */
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * ORDER BY clause (without the keyword) for this order
+     * @return SQL ordering columns
+     */
+    public String getOrderBy() {
+        return orderBy;
+    }
+
+    /**
+     * WHERE condition matching rows that come after a ReviewCursor in this order
+     * Placeholders are bound by ReviewCursor.bind()
+     * @return SQL condition
+     */
+    public String getKeysetPredicate() {
+        return keysetPredicate;
+    }
+
+    /**
+     * Whether rating is the leading sort key
+     * @return true for the rating based orders
+     */
+    public boolean isRatingOrdered() {
+        return this != RECENT;
+    }
+
+    /**
+     * Look up a sort order from the sortBy request parameter
+     * @param param Parameter value, may be null
+     * @return Matching order, or RECENT if unknown
+     */
+    public static ReviewSort fromParam(String param) {
+        for (ReviewSort sort : values()) {
+            if (sort.param.equals(param)) {
+                return sort;
+            }
+        }
+        return RECENT;
+    }
+}
@@ -1,11 +1,19 @@
 package com.foodlocator.dao;
 
+import com.foodlocator.cache.DataVersions;
+import com.foodlocator.cache.UserProfileCache;
 import com.foodlocator.model.User;
 import com.foodlocator.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Data Access Object for User operations
@@ -25,7 +33,7 @@ public class UserDAO {
      * @return true if successful, false otherwise
      */
     public boolean createUser(User user) {
-        String sql = "INSERT INTO Users (email, name, password) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO users (email, username, password) VALUES (?, ?, ?)";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -41,6 +49,7 @@ public class UserDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         user.setUserID(generatedKeys.getInt(1));
+                        UserProfileCache.getInstance().put(user.getUserID(), user.getName());
                     }
                 }
                 return true;
@@ -60,7 +69,7 @@ public class UserDAO {
      * @return User object or null if not found
      */
     public User getUserById(int userID) {
-        String sql = "SELECT * FROM Users WHERE userID = ?";
+        String sql = "SELECT * FROM users WHERE id = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -70,9 +79,9 @@ public class UserDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     return new User(
-                        rs.getInt("userID"),
+                        rs.getInt("id"),
                         rs.getString("email"),
-                        rs.getString("name"),
+                        rs.getString("username"),
                         rs.getString("password")
                     );
                 }
@@ -86,13 +95,54 @@ public class UserDAO {
         return null;
     }
     
+    /**
+     * Get several users in one query, for resolving review authors in bulk
+     * Only public fields are loaded; email and password are left null
+     * @param userIDs IDs of the users, duplicates are ignored
+     * @return Map of userID to User for the IDs that exist
+     */
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIDs) {
+        Map<Integer, User> users = new HashMap<>();
+        Set<Integer> ids = new LinkedHashSet<>(userIDs);
+        if (ids.isEmpty()) {
+            return users;
+        }
+        
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT id, username FROM users WHERE id IN (" + placeholders + ")";
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (int id : ids) {
+                pstmt.setInt(index++, id);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    User user = new User();
+                    user.setUserID(rs.getInt("id"));
+                    user.setName(rs.getString("username"));
+                    users.put(user.getUserID(), user);
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting users by IDs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return users;
+    }
+    
     /**
      * Get user by email
      * @param email Email of the user
      * @return User object or null if not found
      */
     public User getUserByEmail(String email) {
-        String sql = "SELECT * FROM Users WHERE email = ?";
+        String sql = "SELECT * FROM users WHERE email = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -102,9 +152,9 @@ public class UserDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     return new User(
-                        rs.getInt("userID"),
+                        rs.getInt("id"),
                         rs.getString("email"),
-                        rs.getString("name"),
+                        rs.getString("username"),
                         rs.getString("password")
                     );
                 }
@@ -140,7 +190,7 @@ public class UserDAO {
      * @return true if successful, false otherwise
      */
     public boolean updateUser(User user) {
-        String sql = "UPDATE Users SET email = ?, name = ?, password = ? WHERE userID = ?";
+        String sql = "UPDATE users SET email = ?, username = ?, password = ? WHERE id = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -151,6 +201,8 @@ public class UserDAO {
             pstmt.setInt(4, user.getUserID());
             
             int rowsAffected = pstmt.executeUpdate();
+            UserProfileCache.getInstance().invalidate(user.getUserID());
+            DataVersions.getInstance().usersChanged();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -167,7 +219,7 @@ public class UserDAO {
      * @return true if successful, false otherwise
      */
     public boolean deleteUser(int userID) {
-        String sql = "DELETE FROM Users WHERE userID = ?";
+        String sql = "DELETE FROM users WHERE id = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -175,6 +227,8 @@ public class UserDAO {
             pstmt.setInt(1, userID);
             
             int rowsAffected = pstmt.executeUpdate();
+            UserProfileCache.getInstance().invalidate(userID);
+            DataVersions.getInstance().usersChanged();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -191,7 +245,7 @@ public class UserDAO {
      */
     public List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM Users";
+        String sql = "SELECT * FROM users";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
@@ -199,9 +253,9 @@ public class UserDAO {
             
             while (rs.next()) {
                 users.add(new User(
-                    rs.getInt("userID"),
+                    rs.getInt("id"),
                     rs.getString("email"),
-                    rs.getString("name"),
+                    rs.getString("username"),
                     rs.getString("password")
                 ));
             }
@@ -220,7 +274,7 @@ public class UserDAO {
      * @return true if exists, false otherwise
      */
     public boolean emailExists(String email) {
-        String sql = "SELECT COUNT(*) FROM Users WHERE email = ?";
+        String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
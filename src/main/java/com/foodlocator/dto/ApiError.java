@@ -0,0 +1,17 @@
+package com.foodlocator.dto;
+
+/**
+ * Immutable error envelope returned by the JSON API
+ */
+public final class ApiError {
+
+    private final String error;
+
+    public ApiError(String error) {
+        this.error = error;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
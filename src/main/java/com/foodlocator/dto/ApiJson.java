@@ -0,0 +1,341 @@
+package com.foodlocator.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import com.foodlocator.model.Location;
+import com.foodlocator.model.MarkerCluster;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Hand-written JSON writers for the API's response types
+ * Every response type is written field by field, with no reflection, in the
+ * key order the API has always returned. These types are only ever
+ * written, so there is no reading side. Output matches Gson's defaults:
+ * HTML-sensitive characters are escaped and null properties are left out.
+ */
+public final class ApiJson {
+
+    private static final FieldSelection ALL_LOCATION_FIELDS = FieldSelection.parse(null, LocationView.FIELDS);
+
+    private ApiJson() {}
+
+    /**
+     * Stream a response object to the writer
+     * @param writer Response writer
+     * @param value ApiResponse, ApiError or another response type
+     * @throws IOException if writing fails
+     */
+    public static void write(Writer writer, Object value) throws IOException {
+        JsonWriter json = newJsonWriter(writer);
+        writeValue(json, value);
+        json.flush();
+    }
+
+    /**
+     * Serialize a response object to encoded bytes, e.g. for ResponseCache
+     * @param value ApiResponse, ApiError or another response type
+     * @param charset Response character encoding
+     * @return Encoded body
+     * @throws IOException if writing fails
+     */
+    public static byte[] toBytes(Object value, Charset charset) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try (Writer writer = new OutputStreamWriter(out, charset)) {
+            write(writer, value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * JsonWriter set up like every API response, for hand-built JSON
+     * @param writer Target writer
+     * @return JsonWriter that escapes HTML and skips null properties
+     */
+    public static JsonWriter newJsonWriter(Writer writer) {
+        JsonWriter json = new JsonWriter(writer);
+        json.setHtmlSafe(true);
+        json.setSerializeNulls(false);
+        // Allows NaN and infinite doubles, as Gson's toJson does
+        json.setLenient(true);
+        return json;
+    }
+
+    /**
+     * Write any response value, dispatching on its runtime type
+     * @throws IllegalArgumentException if there is no writer for the type
+     */
+    private static void writeValue(JsonWriter out, Object value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else if (value instanceof ApiResponse) {
+            writeResponse(out, (ApiResponse) value);
+        } else if (value instanceof List) {
+            out.beginArray();
+            for (Object element : (List<?>) value) {
+                writeValue(out, element);
+            }
+            out.endArray();
+        } else if (value instanceof Location) {
+            writeLocation(out, (Location) value, ALL_LOCATION_FIELDS);
+        } else if (value instanceof LocationView) {
+            LocationView view = (LocationView) value;
+            writeLocation(out, view.getLocation(), view.getFields());
+        } else if (value instanceof ReviewDTO) {
+            writeReview(out, (ReviewDTO) value);
+        } else if (value instanceof BatchItem) {
+            writeBatchItem(out, (BatchItem) value);
+        } else if (value instanceof ApiError) {
+            writeError(out, (ApiError) value);
+        } else if (value instanceof UserReviewDTO) {
+            writeUserReview(out, (UserReviewDTO) value);
+        } else if (value instanceof ReviewPage) {
+            writeReviewPage(out, (ReviewPage) value);
+        } else if (value instanceof ReviewCursorPage) {
+            writeReviewCursorPage(out, (ReviewCursorPage) value);
+        } else if (value instanceof ReviewCreated) {
+            writeReviewCreated(out, (ReviewCreated) value);
+        } else if (value instanceof TileInfo) {
+            writeTileInfo(out, (TileInfo) value);
+        } else if (value instanceof LocationDetail) {
+            writeLocationDetail(out, (LocationDetail) value);
+        } else if (value instanceof MarkerCluster) {
+            writeMarkerCluster(out, (MarkerCluster) value);
+        } else {
+            throw new IllegalArgumentException("No JSON writer for " + value.getClass().getName());
+        }
+    }
+
+    private static void writeResponse(JsonWriter out, ApiResponse response) throws IOException {
+        out.beginObject();
+        if (response.getNextCursor() != null) {
+            out.name("nextCursor").value(response.getNextCursor());
+        }
+        out.name("data");
+        writeValue(out, response.getData());
+        out.name("success").value(true);
+        if (response.getCount() != null) {
+            out.name("count").value(response.getCount());
+        }
+        if (response.getZoom() != null) {
+            out.name("zoom").value(response.getZoom());
+        }
+        if (response.getHasMore() != null) {
+            out.name("hasMore").value(response.getHasMore());
+        }
+        out.endObject();
+    }
+
+    private static void writeBatchItem(JsonWriter out, BatchItem item) throws IOException {
+        out.beginObject();
+        out.name("id").value(item.getId());
+        out.name("success").value(item.isSuccess());
+        if (item.isSuccess()) {
+            out.name("data");
+            writeValue(out, item.getData());
+        } else {
+            out.name("error").value(item.getError());
+        }
+        out.endObject();
+    }
+
+    private static void writeError(JsonWriter out, ApiError error) throws IOException {
+        out.beginObject();
+        out.name("success").value(false);
+        out.name("error").value(error.getError());
+        out.endObject();
+    }
+
+    private static void writeReview(JsonWriter out, ReviewDTO review) throws IOException {
+        ReviewFields fields = review.getFields();
+        out.beginObject();
+        if (fields.includes(ReviewFields.CREATED_AT)) {
+            out.name("createdAt").value(review.getCreatedAt());
+        }
+        if (fields.includes(ReviewFields.HELPFUL_COUNT)) {
+            out.name("helpfulCount").value(0);
+        }
+        if (fields.includes(ReviewFields.LOCATION_ID)) {
+            out.name("locationID").value(review.getLocationID());
+        }
+        if (fields.includes(ReviewFields.AUTHOR)) {
+            out.name("author").value(review.getAuthor());
+        }
+        if (fields.includes(ReviewFields.RATING)) {
+            out.name("rating").value(review.getRating());
+        }
+        if (fields.includes(ReviewFields.ID)) {
+            out.name("id").value(review.getId());
+        }
+        if (fields.includes(ReviewFields.TITLE)) {
+            out.name("title").value(review.getTitle());
+        }
+        if (fields.includes(ReviewFields.BODY)) {
+            out.name("body").value(review.getBody());
+            if (review.getBodyTruncated() != null) {
+                out.name("bodyTruncated").value(review.getBodyTruncated());
+            }
+        }
+        if (fields.includes(ReviewFields.USER_ID)) {
+            out.name("userID").value(review.getUserID());
+        }
+        if (fields.includes(ReviewFields.TAGS)) {
+            out.name("tags").beginArray().endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeUserReview(JsonWriter out, UserReviewDTO review) throws IOException {
+        out.beginObject();
+        out.name("createdAt").value(review.getCreatedAt());
+        out.name("locationName").value(review.getLocationName());
+        out.name("locationID").value(review.getLocationID());
+        out.name("rating").value(review.getRating());
+        out.name("id").value(review.getId());
+        out.name("title").value(review.getTitle());
+        out.name("body").value(review.getBody());
+        out.endObject();
+    }
+
+    private static void writeReviewPage(JsonWriter out, ReviewPage page) throws IOException {
+        out.beginObject();
+        out.name("totalReviews").value(page.getTotalReviews());
+        out.name("reviews");
+        writeReviews(out, page.getReviews());
+        out.name("totalPages").value(page.getTotalPages());
+        out.name("pageSize").value(page.getPageSize());
+        out.name("currentPage").value(page.getCurrentPage());
+        out.endObject();
+    }
+
+    private static void writeReviewCursorPage(JsonWriter out, ReviewCursorPage page) throws IOException {
+        out.beginObject();
+        out.name("nextCursor").value(page.getNextCursor());
+        out.name("totalReviews").value(page.getTotalReviews());
+        out.name("reviews");
+        writeReviews(out, page.getReviews());
+        out.name("hasMore").value(page.hasMore());
+        out.name("pageSize").value(page.getPageSize());
+        out.endObject();
+    }
+
+    /**
+     * Writes the whole response body, envelope included
+     */
+    private static void writeReviewCreated(JsonWriter out, ReviewCreated created) throws IOException {
+        out.beginObject();
+        out.name("success").value(true);
+        out.name("review").beginObject();
+        out.name("reviewID").value(created.getReviewID());
+        out.name("locationID").value(created.getLocationID());
+        out.name("userID").value(created.getUserID());
+        out.name("rating").value(created.getRating());
+        out.name("title").value(created.getTitle());
+        out.name("body").value(created.getBody());
+        out.name("createdAt").value(created.getCreatedAt());
+        out.endObject();
+        out.name("message").value("Review created successfully");
+        out.name("reviewID").value(created.getReviewID());
+        out.endObject();
+    }
+
+    private static void writeTileInfo(JsonWriter out, TileInfo info) throws IOException {
+        out.beginObject();
+        out.name("version").value(info.getVersion());
+        out.name("tileSize").value(info.getTileSize());
+        out.name("maxZoom").value(info.getMaxZoom());
+        out.name("width").value(info.getWidth());
+        out.name("height").value(info.getHeight());
+        out.endObject();
+    }
+
+    private static void writeLocationDetail(JsonWriter out, LocationDetail detail) throws IOException {
+        out.beginObject();
+        out.name("locationID").value(detail.getLocationID());
+        if (detail.getLocation() != null) {
+            out.name("location");
+            writeLocation(out, detail.getLocation(), ALL_LOCATION_FIELDS);
+        }
+        if (detail.getRating() != null) {
+            out.name("rating").value(detail.getRating());
+        }
+        if (detail.getReviewCount() != null) {
+            out.name("reviewCount").value(detail.getReviewCount());
+        }
+        int[] histogram = detail.getHistogram();
+        if (histogram != null) {
+            out.name("histogram").beginArray();
+            for (int count : histogram) {
+                out.value(count);
+            }
+            out.endArray();
+        }
+        if (detail.getTopReviews() != null) {
+            out.name("topReviews");
+            writeReviews(out, detail.getTopReviews());
+        }
+        out.endObject();
+    }
+
+    private static void writeMarkerCluster(JsonWriter out, MarkerCluster cluster) throws IOException {
+        out.beginObject();
+        out.name("lat").value(cluster.getLat());
+        out.name("lng").value(cluster.getLng());
+        out.name("count").value(cluster.getCount());
+        out.name("bestRating").value(cluster.getBestRating());
+        out.name("locationID").value(cluster.getLocationID());
+        out.endObject();
+    }
+
+    private static void writeLocation(JsonWriter out, Location location, FieldSelection fields) throws IOException {
+        out.beginObject();
+        out.name("locationID").value(location.getLocationID());
+        if (fields.includes("name")) {
+            out.name("name").value(location.getName());
+        }
+        if (fields.includes("address")) {
+            out.name("address").value(location.getAddress());
+        }
+        if (fields.includes("category")) {
+            out.name("category").value(location.getCategory());
+        }
+        if (fields.includes("lat")) {
+            out.name("lat").value(location.getLat());
+        }
+        if (fields.includes("lng")) {
+            out.name("lng").value(location.getLng());
+        }
+        if (fields.includes("rating")) {
+            out.name("rating").value(location.getRating());
+        }
+        if (fields.includes("description")) {
+            out.name("description").value(location.getDescription());
+        }
+        if (fields.includes("tags") && location.getTags() != null) {
+            out.name("tags").beginArray();
+            for (String tag : location.getTags()) {
+                out.value(tag);
+            }
+            out.endArray();
+        }
+        if (fields.includes("distance")) {
+            out.name("distance").value(location.getDistance());
+        }
+        if (fields.includes("reviewCount")) {
+            out.name("reviewCount").value(location.getReviewCount());
+        }
+        out.endObject();
+    }
+
+    private static void writeReviews(JsonWriter out, List<ReviewDTO> reviews) throws IOException {
+        out.beginArray();
+        for (ReviewDTO review : reviews) {
+            writeReview(out, review);
+        }
+        out.endArray();
+    }
+}
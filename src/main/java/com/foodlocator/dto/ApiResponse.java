@@ -0,0 +1,81 @@
+package com.foodlocator.dto;
+
+import java.util.List;
+
+/**
+ * Immutable success envelope returned by the JSON API
+ * Optional fields are left null and omitted from the output
+ */
+public final class ApiResponse {
+
+    private final Object data;
+    private final Integer count;
+    private final Integer zoom;
+    private final String nextCursor;
+    private final Boolean hasMore;
+
+    private ApiResponse(Object data, Integer count, Integer zoom, String nextCursor, Boolean hasMore) {
+        this.data = data;
+        this.count = count;
+        this.zoom = zoom;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Envelope around a single object or list
+     * @param data Payload
+     * @return ApiResponse
+     */
+    public static ApiResponse of(Object data) {
+        return new ApiResponse(data, null, null, null, null);
+    }
+
+    /**
+     * Envelope around a list, including its size as count
+     * @param data Payload
+     * @return ApiResponse
+     */
+    public static ApiResponse counted(List<?> data) {
+        return new ApiResponse(data, data.size(), null, null, null);
+    }
+
+    /**
+     * Envelope around one keyset page of a list
+     * @param data Payload
+     * @param nextCursor Cursor for the next page, or null on the last page
+     * @return ApiResponse
+     */
+    public static ApiResponse paged(List<?> data, String nextCursor) {
+        return new ApiResponse(data, null, null, nextCursor, nextCursor != null);
+    }
+
+    /**
+     * Copy of this envelope that also reports the map zoom level
+     * @param zoom Zoom level
+     * @return ApiResponse
+     */
+    public ApiResponse withZoom(int zoom) {
+        return new ApiResponse(data, count, zoom, nextCursor, hasMore);
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public Integer getZoom() {
+        return zoom;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,54 @@
+package com.foodlocator.dto;
+
+/**
+ * Immutable per-item result of a batch request
+ * Each item succeeds or fails on its own, so one bad ID doesn't fail the batch
+ */
+public final class BatchItem {
+
+    private final int id;
+    private final Object data;
+    private final String error;
+
+    private BatchItem(int id, Object data, String error) {
+        this.id = id;
+        this.data = data;
+        this.error = error;
+    }
+
+    /**
+     * Result for an item that was found
+     * @param id Requested ID
+     * @param data Item, any type ApiJson can write
+     * @return BatchItem
+     */
+    public static BatchItem found(int id, Object data) {
+        return new BatchItem(id, data, null);
+    }
+
+    /**
+     * Result for an item that could not be returned
+     * @param id Requested ID
+     * @param error Client-safe reason
+     * @return BatchItem
+     */
+    public static BatchItem failed(int id, String error) {
+        return new BatchItem(id, null, error);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.foodlocator.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parsed fields= request parameter
+ * Lets a client ask for only the parts of a response it will show, so the
+ * server can skip the work, queries included, behind the rest
+ */
+public final class FieldSelection {
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    // null means every field
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parse a comma-separated field list
+     * @param param Parameter value; null or empty selects every field
+     * @param allowed Field names the endpoint supports
+     * @return FieldSelection
+     * @throws IllegalArgumentException naming the first unknown field
+     */
+    public static FieldSelection parse(String param, Set<String> allowed) {
+        if (param == null || param.trim().isEmpty()) {
+            return ALL;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String part : param.split(",")) {
+            String field = part.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            fields.add(field);
+        }
+        return fields.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSet(fields));
+    }
+
+    /**
+     * Whether a field was asked for
+     * @param field Field name
+     * @return true if selected, or if no selection was given
+     */
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Whether every field is selected, i.e. the full representation
+     * @return true if no selection was given
+     */
+    public boolean selectsAll() {
+        return fields == null;
+    }
+}
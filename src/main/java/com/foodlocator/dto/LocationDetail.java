@@ -0,0 +1,69 @@
+package com.foodlocator.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.foodlocator.model.Location;
+
+/**
+ * Immutable composite of everything the location modal shows
+ * Parts that were not selected with fields= are null and left out of the JSON
+ */
+public final class LocationDetail {
+
+    public static final String LOCATION = "location";
+    public static final String RATING = "rating";
+    public static final String REVIEW_COUNT = "reviewCount";
+    public static final String HISTOGRAM = "histogram";
+    public static final String TOP_REVIEWS = "topReviews";
+
+    public static final Set<String> FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+        Arrays.asList(LOCATION, RATING, REVIEW_COUNT, HISTOGRAM, TOP_REVIEWS)));
+
+    private final int locationID;
+    private final Location location;
+    private final Double rating;
+    private final Integer reviewCount;
+    private final int[] histogram;
+    private final List<ReviewDTO> topReviews;
+
+    public LocationDetail(int locationID, Location location, Double rating, Integer reviewCount,
+                          int[] histogram, List<ReviewDTO> topReviews) {
+        this.locationID = locationID;
+        this.location = location;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+        this.histogram = histogram != null ? histogram.clone() : null;
+        this.topReviews = topReviews != null ? Collections.unmodifiableList(topReviews) : null;
+    }
+
+    public int getLocationID() {
+        return locationID;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public Integer getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * @return Review counts for 1 to 5 stars, or null if not selected
+     */
+    public int[] getHistogram() {
+        return histogram != null ? histogram.clone() : null;
+    }
+
+    public List<ReviewDTO> getTopReviews() {
+        return topReviews;
+    }
+}
@@ -0,0 +1,64 @@
+package com.foodlocator.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.foodlocator.model.Location;
+
+/**
+ * A location written with only the properties selected with fields=
+ * locationID is always written so clients can tell the items apart
+ */
+public final class LocationView {
+
+    public static final Set<String> FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+        Arrays.asList("locationID", "name", "address", "category", "lat", "lng", "rating",
+            "description", "tags", "distance", "reviewCount")));
+
+    private final Location location;
+    private final FieldSelection fields;
+
+    private LocationView(Location location, FieldSelection fields) {
+        this.location = location;
+        this.fields = fields;
+    }
+
+    /**
+     * Project one location
+     * @param location Location
+     * @param fields Selected properties
+     * @return The location itself if every property is selected, else a LocationView
+     */
+    public static Object of(Location location, FieldSelection fields) {
+        return fields.selectsAll() ? location : new LocationView(location, fields);
+    }
+
+    /**
+     * Project a list of locations
+     * @param locations Locations
+     * @param fields Selected properties
+     * @return The list itself if every property is selected, else a list of LocationViews
+     */
+    public static List<?> of(List<Location> locations, FieldSelection fields) {
+        if (fields.selectsAll()) {
+            return locations;
+        }
+        List<LocationView> views = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            views.add(new LocationView(location, fields));
+        }
+        return views;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public FieldSelection getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,73 @@
+package com.foodlocator.dto;
+
+import com.foodlocator.model.Review;
+
+/**
+ * Immutable response to a successful review submission
+ */
+public final class ReviewCreated {
+
+    private final int reviewID;
+    private final int locationID;
+    private final int userID;
+    private final double rating;
+    private final String title;
+    private final String body;
+    private final String createdAt;
+
+    public ReviewCreated(int reviewID, int locationID, int userID, double rating,
+                         String title, String body, String createdAt) {
+        this.reviewID = reviewID;
+        this.locationID = locationID;
+        this.userID = userID;
+        this.rating = rating;
+        this.title = title;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Build the response from the review as stored
+     * @param review Review with reviewID set
+     * @return ReviewCreated
+     */
+    public static ReviewCreated from(Review review) {
+        return new ReviewCreated(
+            review.getReviewID(),
+            review.getLocationID(),
+            review.getUserID(),
+            review.getRating(),
+            review.getTitle(),
+            review.getBody(),
+            review.getCreatedAt() != null ? review.getCreatedAt().toString() : null
+        );
+    }
+
+    public int getReviewID() {
+        return reviewID;
+    }
+
+    public int getLocationID() {
+        return locationID;
+    }
+
+    public int getUserID() {
+        return userID;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+}
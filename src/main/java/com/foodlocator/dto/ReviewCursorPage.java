@@ -0,0 +1,41 @@
+package com.foodlocator.dto;
+
+import java.util.List;
+
+/**
+ * Immutable keyset page of a location's reviews
+ */
+public final class ReviewCursorPage {
+
+    private final List<ReviewDTO> reviews;
+    private final int pageSize;
+    private final int totalReviews;
+    private final String nextCursor;
+
+    public ReviewCursorPage(List<ReviewDTO> reviews, int pageSize, int totalReviews, String nextCursor) {
+        this.reviews = List.copyOf(reviews);
+        this.pageSize = pageSize;
+        this.totalReviews = totalReviews;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReviewDTO> getReviews() {
+        return reviews;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotalReviews() {
+        return totalReviews;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
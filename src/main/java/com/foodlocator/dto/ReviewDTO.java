@@ -0,0 +1,170 @@
+package com.foodlocator.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.foodlocator.cache.UserProfileCache;
+import com.foodlocator.model.Review;
+
+/**
+ * Immutable view of a location review as shown in the review list and modal
+ * Carries the ReviewFields it was built for; fields left out are not written
+ */
+public final class ReviewDTO {
+
+    private final int id;
+    private final int locationID;
+    private final int userID;
+    private final double rating;
+    private final String title;
+    private final String body;
+    private final String author;
+    private final String createdAt;
+    // Only set for excerpts
+    private final Boolean bodyTruncated;
+    private final ReviewFields fields;
+
+    public ReviewDTO(int id, int locationID, int userID, double rating,
+                     String title, String body, String author, String createdAt) {
+        this(id, locationID, userID, rating, title, body, author, createdAt, null, ReviewFields.ALL);
+    }
+
+    private ReviewDTO(int id, int locationID, int userID, double rating, String title, String body,
+                      String author, String createdAt, Boolean bodyTruncated, ReviewFields fields) {
+        this.id = id;
+        this.locationID = locationID;
+        this.userID = userID;
+        this.rating = rating;
+        this.title = title;
+        this.body = body;
+        this.author = author;
+        this.createdAt = createdAt;
+        this.bodyTruncated = bodyTruncated;
+        this.fields = fields;
+    }
+
+    /**
+     * Build a DTO from a review and the resolved author names
+     * @param review Review
+     * @param authors Map of userID to username; missing users show as Anonymous
+     * @return ReviewDTO
+     */
+    public static ReviewDTO from(Review review, Map<Integer, String> authors) {
+        return from(review, authors, ReviewFields.ALL);
+    }
+
+    /**
+     * Build a DTO with only the selected fields
+     * For excerpts the review's body may run past the excerpt length (see
+     * ReviewProjection); it is cut here and bodyTruncated set accordingly
+     * @param review Review
+     * @param authors Map of userID to username; missing users show as Anonymous
+     * @param fields Fields to include
+     * @return ReviewDTO
+     */
+    public static ReviewDTO from(Review review, Map<Integer, String> authors, ReviewFields fields) {
+        String body = review.getBody();
+        Boolean bodyTruncated = null;
+        if (fields.isExcerpt() && body != null) {
+            // Counted in code points, like MySQL counts characters
+            int length = fields.getExcerptLength();
+            bodyTruncated = body.codePointCount(0, body.length()) > length;
+            if (bodyTruncated) {
+                body = body.substring(0, body.offsetByCodePoints(0, length));
+            }
+        }
+        return new ReviewDTO(
+            review.getReviewID(),
+            review.getLocationID(),
+            review.getUserID(),
+            review.getRating(),
+            review.getTitle(),
+            body,
+            authors.getOrDefault(review.getUserID(), "Anonymous"),
+            review.getCreatedAt().toString(),
+            bodyTruncated,
+            fields
+        );
+    }
+
+    /**
+     * Build DTOs for a list of reviews, resolving all authors in one batch
+     * Author names come from UserProfileCache; only uncached users hit the database
+     * @param reviews Reviews in display order
+     * @return ReviewDTOs in the same order
+     */
+    public static List<ReviewDTO> fromAll(List<Review> reviews) {
+        return fromAll(reviews, ReviewFields.ALL);
+    }
+
+    /**
+     * Build DTOs with only the selected fields
+     * Authors are only looked up when the author field is selected
+     * @param reviews Reviews in display order
+     * @param fields Fields to include
+     * @return ReviewDTOs in the same order
+     */
+    public static List<ReviewDTO> fromAll(List<Review> reviews, ReviewFields fields) {
+        Map<Integer, String> authors = Collections.emptyMap();
+        if (fields.includes(ReviewFields.AUTHOR)) {
+            Set<Integer> userIDs = new HashSet<>();
+            for (Review review : reviews) {
+                userIDs.add(review.getUserID());
+            }
+            authors = UserProfileCache.getInstance().usernames(userIDs);
+        }
+
+        List<ReviewDTO> dtos = new ArrayList<>(reviews.size());
+        for (Review review : reviews) {
+            dtos.add(from(review, authors, fields));
+        }
+        return dtos;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getLocationID() {
+        return locationID;
+    }
+
+    public int getUserID() {
+        return userID;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return Whether the body excerpt left text out, or null if the body is not an excerpt
+     */
+    public Boolean getBodyTruncated() {
+        return bodyTruncated;
+    }
+
+    public ReviewFields getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,89 @@
+package com.foodlocator.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Which parts of each review a response includes
+ * Parsed from the fields= and excerpt= request parameters; with excerpt=N
+ * the body is cut to its first N characters and bodyTruncated says whether
+ * anything was left out
+ */
+public final class ReviewFields {
+
+    public static final String ID = "id";
+    public static final String LOCATION_ID = "locationID";
+    public static final String USER_ID = "userID";
+    public static final String AUTHOR = "author";
+    public static final String RATING = "rating";
+    public static final String TITLE = "title";
+    public static final String BODY = "body";
+    public static final String CREATED_AT = "createdAt";
+    public static final String HELPFUL_COUNT = "helpfulCount";
+    public static final String TAGS = "tags";
+
+    public static final Set<String> FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+        Arrays.asList(ID, LOCATION_ID, USER_ID, AUTHOR, RATING, TITLE, BODY, CREATED_AT, HELPFUL_COUNT, TAGS)));
+
+    // Longest body the reviews table holds
+    public static final int MAX_EXCERPT_LENGTH = 2000;
+
+    public static final ReviewFields ALL = new ReviewFields(FieldSelection.parse(null, FIELDS), 0);
+
+    private final FieldSelection fields;
+    private final int excerptLength;
+
+    private ReviewFields(FieldSelection fields, int excerptLength) {
+        this.fields = fields;
+        this.excerptLength = excerptLength;
+    }
+
+    /**
+     * Parse the request parameters
+     * @param fieldsParam Comma-separated fields, or null for all
+     * @param excerptParam Body excerpt length in characters, or null for full bodies
+     * @return ReviewFields
+     * @throws IllegalArgumentException with a message for the client
+     */
+    public static ReviewFields parse(String fieldsParam, String excerptParam) {
+        FieldSelection fields = FieldSelection.parse(fieldsParam, FIELDS);
+        int excerptLength = 0;
+        if (excerptParam != null && !excerptParam.isEmpty()) {
+            try {
+                excerptLength = Integer.parseInt(excerptParam);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid excerpt");
+            }
+            if (excerptLength < 1 || excerptLength > MAX_EXCERPT_LENGTH) {
+                throw new IllegalArgumentException("excerpt must be between 1 and " + MAX_EXCERPT_LENGTH);
+            }
+        }
+        return excerptLength == 0 && fields.selectsAll() ? ALL : new ReviewFields(fields, excerptLength);
+    }
+
+    /**
+     * Whether a field was asked for
+     * @param field One of FIELDS
+     * @return true if the field is included
+     */
+    public boolean includes(String field) {
+        return fields.includes(field);
+    }
+
+    /**
+     * @return Characters of body to keep, or 0 for the full body
+     */
+    public int getExcerptLength() {
+        return excerptLength;
+    }
+
+    /**
+     * Whether bodies are cut to an excerpt
+     * @return true if the body is included and excerpt= was given
+     */
+    public boolean isExcerpt() {
+        return excerptLength > 0 && includes(BODY);
+    }
+}
@@ -0,0 +1,43 @@
+package com.foodlocator.dto;
+
+import java.util.List;
+
+/**
+ * Immutable numbered page of a location's reviews
+ */
+public final class ReviewPage {
+
+    private final List<ReviewDTO> reviews;
+    private final int currentPage;
+    private final int totalPages;
+    private final int totalReviews;
+    private final int pageSize;
+
+    public ReviewPage(List<ReviewDTO> reviews, int currentPage, int totalPages, int totalReviews, int pageSize) {
+        this.reviews = List.copyOf(reviews);
+        this.currentPage = currentPage;
+        this.totalPages = totalPages;
+        this.totalReviews = totalReviews;
+        this.pageSize = pageSize;
+    }
+
+    public List<ReviewDTO> getReviews() {
+        return reviews;
+    }
+
+    public int getCurrentPage() {
+        return currentPage;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public int getTotalReviews() {
+        return totalReviews;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
@@ -0,0 +1,128 @@
+package com.foodlocator.dto;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Immutable review submitted through POST /api/reviews
+ * Parsed field by field from the request body, rejecting bad input as
+ * soon as the offending field is read rather than after the whole body
+ */
+public final class ReviewSubmission {
+
+    // Column sizes of reviews.title and reviews.body
+    public static final int MAX_TITLE_LENGTH = 255;
+    public static final int MAX_BODY_LENGTH = 2000;
+
+    private final int locationID;
+    private final double rating;
+    private final String title;
+    private final String body;
+
+    public ReviewSubmission(int locationID, double rating, String title, String body) {
+        this.locationID = locationID;
+        this.rating = rating;
+        this.title = title;
+        this.body = body;
+    }
+
+    /**
+     * Parse and validate a submission
+     * Unknown fields (e.g. tags) are skipped without being materialized
+     * @param in Request body
+     * @return Valid ReviewSubmission
+     * @throws IllegalArgumentException if a field is missing or invalid; the message is client-safe
+     * @throws IOException if the body is not well-formed JSON or cannot be read
+     */
+    public static ReviewSubmission read(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+
+        Integer locationID = null;
+        Double rating = null;
+        String title = null;
+        String body = null;
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "locationID":
+                        locationID = reader.nextInt();
+                        if (locationID <= 0) {
+                            throw new IllegalArgumentException("Invalid location ID");
+                        }
+                        break;
+                    case "rating":
+                        rating = reader.nextDouble();
+                        if (rating < 0 || rating > 5) {
+                            throw new IllegalArgumentException("Rating must be between 0 and 5");
+                        }
+                        break;
+                    case "title":
+                        title = nextStringOrNull(reader);
+                        if (title != null && title.length() > MAX_TITLE_LENGTH) {
+                            throw new IllegalArgumentException(
+                                "Title must be at most " + MAX_TITLE_LENGTH + " characters");
+                        }
+                        break;
+                    case "body":
+                        body = nextStringOrNull(reader);
+                        if (body != null && body.length() > MAX_BODY_LENGTH) {
+                            throw new IllegalArgumentException(
+                                "Review must be at most " + MAX_BODY_LENGTH + " characters");
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new IllegalArgumentException("Invalid request body");
+            }
+        } catch (NumberFormatException | IllegalStateException e) {
+            // Wrong token type for a field, e.g. a string where a number belongs
+            throw new IllegalArgumentException("Invalid request body");
+        }
+
+        if (locationID == null) {
+            throw new IllegalArgumentException("Location ID required");
+        }
+        if (rating == null) {
+            throw new IllegalArgumentException("Rating must be between 0 and 5");
+        }
+        if (title == null || title.isEmpty() || body == null || body.isEmpty()) {
+            throw new IllegalArgumentException("Title and body are required");
+        }
+
+        return new ReviewSubmission(locationID, rating, title, body);
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    public int getLocationID() {
+        return locationID;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,54 @@
+package com.foodlocator.dto;
+
+import com.foodlocator.cache.MapTiles;
+
+/**
+ * Immutable description of the map tile pyramid for the client
+ * Tiles live at /tiles/{version}/{zoom}/{x}/{y}.png
+ */
+public final class TileInfo {
+
+    private final String version;
+    private final int tileSize;
+    private final int maxZoom;
+    private final int width;
+    private final int height;
+
+    public TileInfo(String version, int tileSize, int maxZoom, int width, int height) {
+        this.version = version;
+        this.tileSize = tileSize;
+        this.maxZoom = maxZoom;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Describe a generated pyramid
+     * @param pyramid Current pyramid
+     * @return TileInfo
+     */
+    public static TileInfo from(MapTiles.Pyramid pyramid) {
+        return new TileInfo(pyramid.getVersion(), MapTiles.TILE_SIZE, pyramid.getMaxZoom(),
+            pyramid.getWidth(), pyramid.getHeight());
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,73 @@
+package com.foodlocator.dto;
+
+import com.foodlocator.model.Review;
+
+/**
+ * Immutable view of one of a user's own reviews, as listed under My Reviews
+ */
+public final class UserReviewDTO {
+
+    private final int id;
+    private final int locationID;
+    private final String locationName;
+    private final double rating;
+    private final String title;
+    private final String body;
+    private final String createdAt;
+
+    public UserReviewDTO(int id, int locationID, String locationName, double rating,
+                         String title, String body, String createdAt) {
+        this.id = id;
+        this.locationID = locationID;
+        this.locationName = locationName;
+        this.rating = rating;
+        this.title = title;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Build a DTO from a review loaded with its location name
+     * @param review Review
+     * @return UserReviewDTO
+     */
+    public static UserReviewDTO from(Review review) {
+        return new UserReviewDTO(
+            review.getReviewID(),
+            review.getLocationID(),
+            review.getLocationName(),
+            review.getRating(),
+            review.getTitle(),
+            review.getBody(),
+            review.getCreatedAt().toString()
+        );
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getLocationID() {
+        return locationID;
+    }
+
+    public String getLocationName() {
+        return locationName;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+}
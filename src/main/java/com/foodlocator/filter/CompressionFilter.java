@@ -0,0 +1,414 @@
+package com.foodlocator.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Gzip-encodes text responses (JSON, HTML, CSS, JS) for clients that accept it
+ * Output is buffered until it grows past the threshold; smaller responses
+ * go out uncompressed with a Content-Length, since compressing them costs
+ * more CPU than it saves bytes. Responses that already carry a
+ * Content-Encoding, e.g. precompressed static assets, are left alone.
+ * For requests that go async the filter returns before the response is
+ * written, so whoever completes the request calls finish(response).
+ * Non-blocking output (setWriteListener) is sent uncompressed.
+ */
+public class CompressionFilter implements Filter {
+
+    private static final int DEFAULT_THRESHOLD = 1024;
+
+    private int threshold = DEFAULT_THRESHOLD;
+
+    @Override
+    public void init(FilterConfig config) {
+        String value = config.getInitParameter("threshold");
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                threshold = Math.max(0, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid compression threshold: " + value);
+            }
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        if (!acceptsGzip(request) || "HEAD".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse wrapped = new CompressingResponse(response, threshold);
+        try {
+            chain.doFilter(request, wrapped);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                wrapped.finish();
+            }
+        }
+    }
+
+    /**
+     * Flush and finish the compressed body of an async response before completing it
+     * @param response Response from the AsyncContext; left alone if this filter didn't wrap it
+     * @throws IOException if writing fails
+     */
+    public static void finish(ServletResponse response) throws IOException {
+        while (response instanceof ServletResponseWrapper) {
+            if (response instanceof CompressingResponse) {
+                ((CompressingResponse) response).finish();
+                return;
+            }
+            response = ((ServletResponseWrapper) response).getResponse();
+        }
+    }
+
+    /**
+     * Whether the client lists gzip (or *) in Accept-Encoding with a non-zero q value
+     * @param request Incoming request
+     * @return true if a gzip-encoded response is acceptable
+     */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader("Accept-Encoding");
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim();
+            if (!"gzip".equalsIgnoreCase(coding) && !"*".equals(coding)) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return (type.startsWith("text/") && !type.startsWith("text/event-stream"))
+            || type.startsWith("application/json")
+            || type.startsWith("application/javascript")
+            || type.startsWith("application/xml")
+            || type.startsWith("image/svg+xml");
+    }
+
+    /**
+     * Response wrapper that decides on first write whether to compress
+     */
+    private static final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private enum Mode { UNDECIDED, BUFFERING, COMPRESSING, PASSTHROUGH }
+
+        private final HttpServletResponse response;
+        private final int threshold;
+
+        private Mode mode = Mode.UNDECIDED;
+        private boolean finished;
+        private ByteArrayOutputStream buffer;
+        private GZIPOutputStream gzip;
+        private long contentLength = -1;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, int threshold) {
+            super(response);
+            this.response = response;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new CompressingStream();
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                stream = new CompressingStream();
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // Only known to be right if the body is not compressed
+            if (mode == Mode.PASSTHROUGH) {
+                super.setContentLengthLong(len);
+            } else {
+                contentLength = len;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (interceptHeader(name, value)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (interceptHeader(name, value)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            super.setStatus(sc);
+            if (sc == SC_NO_CONTENT || sc == SC_NOT_MODIFIED) {
+                passthrough();
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            passthrough();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            passthrough();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            passthrough();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (mode == Mode.COMPRESSING) {
+                gzip.flush();
+            }
+            if (mode == Mode.PASSTHROUGH || mode == Mode.COMPRESSING) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (mode == Mode.BUFFERING) {
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (mode == Mode.BUFFERING) {
+                buffer.reset();
+                mode = Mode.UNDECIDED;
+            }
+            contentLength = -1;
+        }
+
+        /**
+         * Write out whatever is still buffered and finish the gzip stream
+         */
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (writer != null) {
+                writer.flush();
+            }
+            if (mode == Mode.COMPRESSING) {
+                gzip.finish();
+            } else if (mode == Mode.BUFFERING) {
+                // Stayed under the threshold: send as-is
+                mode = Mode.PASSTHROUGH;
+                super.setContentLengthLong(buffer.size());
+                buffer.writeTo(response.getOutputStream());
+            } else {
+                passthrough();
+            }
+        }
+
+        /**
+         * @return true if the header should be passed on now
+         */
+        private boolean interceptHeader(String name, String value) {
+            if ("Content-Encoding".equalsIgnoreCase(name)) {
+                passthrough();
+            } else if ("Content-Length".equalsIgnoreCase(name) && mode != Mode.PASSTHROUGH) {
+                try {
+                    contentLength = Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    contentLength = -1;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Send what is buffered as-is and stop considering compression
+         */
+        private void stopBuffering() throws IOException {
+            if (mode == Mode.BUFFERING) {
+                mode = Mode.PASSTHROUGH;
+                if (contentLength >= 0) {
+                    super.setContentLengthLong(contentLength);
+                }
+                buffer.writeTo(response.getOutputStream());
+                buffer = null;
+            } else {
+                passthrough();
+            }
+        }
+
+        private void passthrough() {
+            if (mode == Mode.UNDECIDED) {
+                mode = Mode.PASSTHROUGH;
+                if (contentLength >= 0) {
+                    super.setContentLengthLong(contentLength);
+                }
+            }
+        }
+
+        private OutputStream target(int incoming) throws IOException {
+            if (mode == Mode.UNDECIDED) {
+                if (isCompressible(getContentType()) && response.getHeader("Content-Encoding") == null) {
+                    mode = Mode.BUFFERING;
+                    buffer = new ByteArrayOutputStream(Math.max(threshold, 32));
+                } else {
+                    passthrough();
+                }
+            }
+            if (mode == Mode.BUFFERING && buffer.size() + incoming > threshold) {
+                startCompressing();
+            }
+            switch (mode) {
+                case BUFFERING:
+                    return buffer;
+                case COMPRESSING:
+                    return gzip;
+                default:
+                    return response.getOutputStream();
+            }
+        }
+
+        private void startCompressing() throws IOException {
+            mode = Mode.COMPRESSING;
+            super.setHeader("Content-Encoding", "gzip");
+            super.addHeader("Vary", "Accept-Encoding");
+            gzip = new GZIPOutputStream(response.getOutputStream(), 8192, true);
+            buffer.writeTo(gzip);
+            buffer = null;
+        }
+
+        private final class CompressingStream extends ServletOutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                target(1).write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                target(len).write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (mode == Mode.COMPRESSING) {
+                    gzip.flush();
+                } else if (mode == Mode.PASSTHROUGH) {
+                    response.getOutputStream().flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                // Buffered and gzip writes never block
+                if (mode != Mode.PASSTHROUGH) {
+                    return true;
+                }
+                try {
+                    return response.getOutputStream().isReady();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            /**
+             * Non-blocking output goes out uncompressed: anything buffered so
+             * far is written first, then the container's stream takes over
+             */
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                if (mode == Mode.COMPRESSING) {
+                    throw new IllegalStateException("Non-blocking output must start before the body is compressed");
+                }
+                try {
+                    stopBuffering();
+                    response.getOutputStream().setWriteListener(listener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
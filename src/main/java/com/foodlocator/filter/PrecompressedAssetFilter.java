@@ -0,0 +1,74 @@
+package com.foodlocator.filter;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Serves the build-time .gz sibling of a static asset to clients that accept gzip
+ * The request is forwarded to the container's default servlet for the .gz
+ * file, so conditional and range requests keep working, while the original
+ * file's content type is kept and Content-Encoding: gzip is added
+ */
+public class PrecompressedAssetFilter implements Filter {
+
+    private ServletContext context;
+    // Whether a .gz sibling exists, per asset path; assets don't change at runtime
+    private final ConcurrentHashMap<String, Boolean> precompressed = new ConcurrentHashMap<>();
+
+    @Override
+    public void init(FilterConfig config) {
+        context = config.getServletContext();
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!("GET".equals(method) || "HEAD".equals(method)) || !hasPrecompressed(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        response.addHeader("Vary", "Accept-Encoding");
+        if (!CompressionFilter.acceptsGzip(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String contentType = context.getMimeType(path);
+        response.setHeader("Content-Encoding", "gzip");
+        request.getRequestDispatcher(path + ".gz").forward(request, new HttpServletResponseWrapper(response) {
+            @Override
+            public void setContentType(String type) {
+                // Keep the original asset's type instead of application/gzip
+                super.setContentType(contentType);
+            }
+        });
+    }
+
+    private boolean hasPrecompressed(String path) {
+        return precompressed.computeIfAbsent(path, p -> {
+            try {
+                return context.getResource(p + ".gz") != null;
+            } catch (MalformedURLException e) {
+                return false;
+            }
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.foodlocator.filter;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.foodlocator.util.FingerprintAssets;
+import com.foodlocator.util.HttpCaching;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sets Cache-Control on static assets
+ * Fingerprinted files (see FingerprintAssets) never change under the same
+ * name, so browsers may keep them for a year without revalidating. Anything
+ * else must be revalidated, which the default servlet answers with a 304.
+ */
+public class StaticCacheFilter implements Filter {
+
+    static final String REVALIDATE = "no-cache";
+
+    private ServletContext context;
+    // Fingerprinted paths known to exist, so 404s are never cached; misses are not
+    // remembered, which keeps requests for made-up hashes from growing the map
+    private final ConcurrentHashMap<String, Boolean> existing = new ConcurrentHashMap<>();
+
+    @Override
+    public void init(FilterConfig config) {
+        context = config.getServletContext();
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            boolean immutable = FingerprintAssets.isFingerprinted(path) && exists(path);
+            response.setHeader("Cache-Control", immutable ? HttpCaching.IMMUTABLE_CACHE_CONTROL : REVALIDATE);
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private boolean exists(String path) {
+        return existing.computeIfAbsent(path, p -> {
+            try {
+                return context.getResource(p) != null ? Boolean.TRUE : null;
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }) != null;
+    }
+}
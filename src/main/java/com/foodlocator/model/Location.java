@@ -41,6 +41,24 @@ public class Location {
         this.lng = lng;
     }
     
+    /**
+     * Copy constructor, used to hand out per-request copies of shared catalog entries
+     * @param other Location to copy
+     */
+    public Location(Location other) {
+        this.locationID = other.locationID;
+        this.name = other.name;
+        this.address = other.address;
+        this.category = other.category;
+        this.lat = other.lat;
+        this.lng = other.lng;
+        this.rating = other.rating;
+        this.description = other.description;
+        this.tags = other.tags;
+        this.distance = other.distance;
+        this.reviewCount = other.reviewCount;
+    }
+    
     // Getters and Setters
     public int getLocationID() {
         return locationID;
@@ -0,0 +1,76 @@
+package com.foodlocator.model;
+
+/**
+ * A group of nearby locations drawn as one map marker at a given zoom level
+ */
+public class MarkerCluster {
+    private double lat;
+    private double lng;
+    private int count;
+    private double bestRating;
+    // Set only when the cluster holds a single location
+    private Integer locationID;
+    
+    // Constructors
+    public MarkerCluster() {}
+    
+    public MarkerCluster(double lat, double lng, int count, double bestRating, Integer locationID) {
+        this.lat = lat;
+        this.lng = lng;
+        this.count = count;
+        this.bestRating = bestRating;
+        this.locationID = locationID;
+    }
+    
+    // Getters and Setters
+    public double getLat() {
+        return lat;
+    }
+    
+    public void setLat(double lat) {
+        this.lat = lat;
+    }
+    
+    public double getLng() {
+        return lng;
+    }
+    
+    public void setLng(double lng) {
+        this.lng = lng;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public void setCount(int count) {
+        this.count = count;
+    }
+    
+    public double getBestRating() {
+        return bestRating;
+    }
+    
+    public void setBestRating(double bestRating) {
+        this.bestRating = bestRating;
+    }
+    
+    public Integer getLocationID() {
+        return locationID;
+    }
+    
+    public void setLocationID(Integer locationID) {
+        this.locationID = locationID;
+    }
+    
+    @Override
+    public String toString() {
+        return "MarkerCluster{" +
+                "lat=" + lat +
+                ", lng=" + lng +
+                ", count=" + count +
+                ", bestRating=" + bestRating +
+                ", locationID=" + locationID +
+                '}';
+    }
+}
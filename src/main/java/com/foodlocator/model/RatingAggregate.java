@@ -0,0 +1,86 @@
+package com.foodlocator.model;
+
+/**
+ * Precomputed rating summary for a location
+ * Mirrors a row of the location_ratings table
+ */
+public class RatingAggregate {
+    private int locationID;
+    private int reviewCount;
+    private double ratingSum;
+    private double avgRating;
+    // histogram[0] counts 1-star reviews, histogram[4] counts 5-star reviews
+    private int[] histogram = new int[5];
+    
+    // Constructors
+    public RatingAggregate() {}
+    
+    public RatingAggregate(int locationID, int reviewCount, double ratingSum, double avgRating, int[] histogram) {
+        this.locationID = locationID;
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+        this.avgRating = avgRating;
+        this.histogram = histogram;
+    }
+    
+    /**
+     * Star bucket a rating is counted under (1-5)
+     * Matches the number of full stars the UI draws for the rating
+     * @param rating Review rating between 0 and 5
+     * @return Bucket between 1 and 5
+     */
+    public static int starBucket(double rating) {
+        return Math.max(1, Math.min(5, (int) Math.floor(rating)));
+    }
+    
+    // Getters and Setters
+    public int getLocationID() {
+        return locationID;
+    }
+    
+    public void setLocationID(int locationID) {
+        this.locationID = locationID;
+    }
+    
+    public int getReviewCount() {
+        return reviewCount;
+    }
+    
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+    
+    public double getRatingSum() {
+        return ratingSum;
+    }
+    
+    public void setRatingSum(double ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+    
+    public double getAvgRating() {
+        return avgRating;
+    }
+    
+    public void setAvgRating(double avgRating) {
+        this.avgRating = avgRating;
+    }
+    
+    public int[] getHistogram() {
+        return histogram;
+    }
+    
+    public void setHistogram(int[] histogram) {
+        this.histogram = histogram;
+    }
+    
+    @Override
+    public String toString() {
+        return "RatingAggregate{" +
+                "locationID=" + locationID +
+                ", reviewCount=" + reviewCount +
+                ", ratingSum=" + ratingSum +
+                ", avgRating=" + avgRating +
+                '}';
+    }
+}
@@ -35,7 +35,22 @@ public class Review {
         this.title = title;
         this.body = body;
     }
-    
+
+    /**
+     * Copy constructor, used to keep private copies of reviews in shared caches
+     * @param other Review to copy
+     */
+    public Review(Review other) {
+        this.reviewID = other.reviewID;
+        this.locationID = other.locationID;
+        this.userID = other.userID;
+        this.rating = other.rating;
+        this.title = other.title;
+        this.body = other.body;
+        this.createdAt = other.createdAt;
+        this.locationName = other.locationName;
+    }
+
     // Getters and Setters
     public int getReviewID() {
         return reviewID;
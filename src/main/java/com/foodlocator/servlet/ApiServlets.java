@@ -0,0 +1,41 @@
+package com.foodlocator.servlet;
+
+import java.io.IOException;
+
+import com.foodlocator.dto.ApiError;
+import com.foodlocator.dto.ApiJson;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Request parsing and error responses shared by the location and cluster servlets
+ */
+final class ApiServlets {
+
+    private ApiServlets() {}
+
+    /**
+     * Parse a double query parameter
+     * @return Parsed value, or null if missing or not a finite number
+     */
+    static Double parseDouble(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            double parsed = Double.parseDouble(value);
+            return Double.isFinite(parsed) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Send error response
+     */
+    static void sendError(HttpServletResponse response, String message, int statusCode) throws IOException {
+        response.setStatus(statusCode);
+
+        ApiJson.write(response.getWriter(), new ApiError(message));
+    }
+}
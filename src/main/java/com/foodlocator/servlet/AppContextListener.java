@@ -0,0 +1,93 @@
+package com.foodlocator.servlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.cache.MapTiles;
+import com.foodlocator.cache.UserProfileCache;
+import com.foodlocator.util.DatabaseConnection;
+import com.foodlocator.util.EventBroadcaster;
+import com.foodlocator.util.RequestExecutor;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+/**
+ * Application lifecycle listener
+ * Warms the connection pool and location catalog and builds the map tile
+ * pyramid on startup, and closes live event streams, the request executor
+ * and the pool on shutdown
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        DatabaseConnection.getInstance();
+        
+        LocationCatalog catalog = LocationCatalog.getInstance();
+        catalog.setMaxStalenessMillis(longParam(sce, "catalog.maxStalenessMillis", 60000));
+        try {
+            catalog.rebuild();
+        } catch (IllegalStateException e) {
+            // Retried by the first request that reads the catalog
+            System.err.println("Error warming location catalog: " + e.getMessage());
+        }
+        
+        UserProfileCache.getInstance().setMaxSize(
+            (int) longParam(sce, "userCache.maxSize", 10000));
+        
+        buildMapTiles(sce.getServletContext());
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        EventBroadcaster.getInstance().shutdown();
+        RequestExecutor.getInstance().shutdown();
+        DatabaseConnection.getInstance().shutdown();
+    }
+
+    /**
+     * Cut the campus map into tiles; the map still works without them
+     */
+    private static void buildMapTiles(ServletContext context) {
+        String image = context.getInitParameter("tiles.sourceImage");
+        if (image == null || image.trim().isEmpty()) {
+            return;
+        }
+        
+        String dir = context.getInitParameter("tiles.dir");
+        Path root = dir != null && !dir.trim().isEmpty()
+            ? Paths.get(dir.trim())
+            : ((File) context.getAttribute(ServletContext.TEMPDIR)).toPath().resolve("tiles");
+        
+        try (InputStream in = context.getResourceAsStream(image.trim())) {
+            if (in == null) {
+                System.err.println("Map image not found: " + image);
+                return;
+            }
+            MapTiles.getInstance().build(in.readAllBytes(), root);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error building map tiles: " + e.getMessage());
+        }
+    }
+
+    private static long longParam(ServletContextEvent sce, String name, long defaultValue) {
+        String value = sce.getServletContext().getInitParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for context param " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.foodlocator.servlet;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.foodlocator.cache.ClusterIndex;
+import com.foodlocator.cache.DataVersions;
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.dto.ApiResponse;
+import com.foodlocator.model.MarkerCluster;
+import com.foodlocator.util.HttpCaching;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet for map marker clusters
+ * GET /api/clusters?north=..&south=..&east=..&west=..&zoom=..
+ * Returns one marker per cluster of locations in the viewport, read from
+ * the catalog snapshot's precomputed ClusterIndex
+ */
+@WebServlet("/api/clusters")
+public class ClusterServlet extends HttpServlet {
+    
+    private LocationCatalog catalog;
+    
+    @Override
+    public void init() {
+        catalog = LocationCatalog.getInstance();
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("application/json");
+        
+        try {
+            Double north = ApiServlets.parseDouble(request.getParameter("north"));
+            Double south = ApiServlets.parseDouble(request.getParameter("south"));
+            Double east = ApiServlets.parseDouble(request.getParameter("east"));
+            Double west = ApiServlets.parseDouble(request.getParameter("west"));
+            if (north == null || south == null || east == null || west == null || south > north || west > east) {
+                ApiServlets.sendError(response, "Valid north, south, east and west parameters are required", 400);
+                return;
+            }
+            
+            int zoom;
+            try {
+                zoom = Integer.parseInt(request.getParameter("zoom"));
+            } catch (NumberFormatException e) {
+                ApiServlets.sendError(response, "Invalid zoom", 400);
+                return;
+            }
+            zoom = Math.max(ClusterIndex.MIN_ZOOM, Math.min(ClusterIndex.MAX_ZOOM, zoom));
+            
+            if (HttpCaching.notModified(request, response, DataVersions.current().catalogTag())) {
+                return;
+            }
+            
+            List<MarkerCluster> clusters = catalog.getSnapshot().getClusterIndex()
+                .clusters(zoom, south, west, north, east);
+            
+            ApiJson.write(response.getWriter(), ApiResponse.counted(clusters).withZoom(zoom));
+            
+        } catch (Exception e) {
+            System.err.println("Error in ClusterServlet: " + e.getMessage());
+            e.printStackTrace();
+            ApiServlets.sendError(response, "Internal server error", 500);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.foodlocator.servlet;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.foodlocator.dto.ApiError;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.filter.CompressionFilter;
+import com.foodlocator.util.EventBroadcaster;
+import com.foodlocator.util.IdList;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Server-Sent Events stream of live updates
+ * GET /api/events[?locations=1,2,3] - Stream of
+ *   review: a new review, as returned by GET /api/reviews/{id}
+ *   rating: {locationID, rating, reviewCount} after a location's rating changes
+ *   resync: events were missed; reload instead of relying on the stream
+ * The request goes async and holds no thread while idle; EventBroadcaster
+ * writes to it as events happen.
+ */
+@WebServlet(urlPatterns = "/api/events", asyncSupported = true)
+public class EventStreamServlet extends HttpServlet {
+
+    private EventBroadcaster broadcaster;
+
+    @Override
+    public void init() {
+        broadcaster = EventBroadcaster.getInstance();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Set<Integer> locationIDs = null;
+        String locations = request.getParameter("locations");
+        if (locations != null) {
+            try {
+                locationIDs = new HashSet<>(IdList.parse(locations));
+            } catch (IllegalArgumentException e) {
+                sendError(response, e.getMessage(), 400);
+                return;
+            }
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // Stops nginx from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext context = request.startAsync();
+        // Dead clients are found by the heartbeat instead
+        context.setTimeout(0);
+
+        try {
+            if (!broadcaster.subscribe(context, locationIDs, request.getHeader("Last-Event-ID"))) {
+                response.reset();
+                sendError(response, "Too many live update clients", 503);
+                // The filter chain has returned, so its buffered body is written here
+                CompressionFilter.finish(response);
+                context.complete();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error starting event stream: " + e.getMessage());
+            context.complete();
+        }
+    }
+
+    /**
+     * Send error response
+     */
+    private void sendError(HttpServletResponse response, String message, int statusCode) throws IOException {
+        response.setStatus(statusCode);
+        response.setContentType("application/json");
+
+        ApiJson.write(response.getWriter(), new ApiError(message));
+    }
+}
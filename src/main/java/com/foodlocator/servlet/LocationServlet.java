@@ -1,13 +1,37 @@
 package com.foodlocator.servlet;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.foodlocator.cache.DataVersions;
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.cache.ResponseCache;
+import com.foodlocator.cache.SpatialIndex;
+import com.foodlocator.cache.TopReviewsCache;
 import com.foodlocator.dao.LocationDAO;
+import com.foodlocator.dao.RatingAggregateDAO;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.dto.ApiResponse;
+import com.foodlocator.dto.BatchItem;
+import com.foodlocator.dto.FieldSelection;
+import com.foodlocator.dto.LocationDetail;
+import com.foodlocator.dto.LocationView;
+import com.foodlocator.dto.ReviewDTO;
+import com.foodlocator.dto.ReviewFields;
+import com.foodlocator.filter.CompressionFilter;
 import com.foodlocator.model.Location;
-import com.google.gson.Gson;
+import com.foodlocator.model.RatingAggregate;
+import com.foodlocator.model.Review;
+import com.foodlocator.util.GeoUtils;
+import com.foodlocator.util.HttpCaching;
+import com.foodlocator.util.IdList;
+import com.foodlocator.util.RequestExecutor;
 
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -16,18 +40,36 @@ import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Servlet for handling location API requests
- * Provides endpoints for retrieving location data from the database
+ * Read endpoints are served from the in-memory LocationCatalog snapshot;
+ * the full and top lists are also kept pre-encoded in the ResponseCache.
+ * Endpoints returning locations take fields= to write only some properties.
+ * Lookups by id and the detail endpoint may query MySQL, so they run on
+ * RequestExecutor; the catalog-served lists answer on the container thread.
  */
-@WebServlet("/api/locations/*")
+@WebServlet(urlPatterns = "/api/locations/*", asyncSupported = true)
 public class LocationServlet extends HttpServlet {
     
+    private static final int DEFAULT_NEARBY_COUNT = 10;
+    private static final int MAX_NEARBY_COUNT = 100;
+    private static final double MAX_RADIUS_MILES = 50;
+    // Same number of reviews as GET /api/reviews/{id}/top
+    private static final int DETAIL_TOP_REVIEWS = 3;
+    
+    // ResponseCache keys for the parameterless list endpoints
+    private static final String ALL_KEY = "locations:all";
+    private static final String TOP_KEY = "locations:top";
+    
     private LocationDAO locationDAO;
-    private Gson gson;
+    private RatingAggregateDAO ratingAggregateDAO;
+    private LocationCatalog catalog;
+    private ResponseCache responseCache;
     
     @Override
     public void init() {
         locationDAO = new LocationDAO();
-        gson = new Gson();
+        ratingAggregateDAO = new RatingAggregateDAO();
+        catalog = LocationCatalog.getInstance();
+        responseCache = ResponseCache.getInstance();
     }
     
     @Override
@@ -37,60 +79,145 @@ public class LocationServlet extends HttpServlet {
         String pathInfo = request.getPathInfo();
         
         try {
-            if (pathInfo == null || pathInfo.equals("/")) {
+            boolean detail = pathInfo != null && pathInfo.endsWith("/detail");
+            // All but the detail endpoint take &fields=name,lat,lng,..
+            FieldSelection fields = FieldSelection.parse(null, LocationView.FIELDS);
+            if (!detail) {
+                try {
+                    fields = FieldSelection.parse(request.getParameter("fields"), LocationView.FIELDS);
+                } catch (IllegalArgumentException e) {
+                    ApiServlets.sendError(response, e.getMessage(), 400);
+                    return;
+                }
+            }
+            
+            if ((pathInfo == null || pathInfo.equals("/")) && request.getParameter("ids") != null) {
+                // GET /api/locations?ids=1,2,3 - Get several locations
+                FieldSelection selection = fields;
+                RequestExecutor.getInstance().submit(request, response,
+                    (req, res) -> getLocationsByIds(selection, req, res));
+            } else if (pathInfo == null || pathInfo.equals("/")) {
                 // GET /api/locations - Get all locations
-                getAllLocations(request, response);
+                String etag = catalogTag();
+                if (!HttpCaching.notModified(request, response, etag)
+                        && !(fields.selectsAll() && writeCached(ALL_KEY, etag, request, response))) {
+                    getAllLocations(etag, fields, request, response);
+                }
             } else if (pathInfo.equals("/top")) {
                 // GET /api/locations/top - Get top rated locations
-                getTopLocations(request, response);
+                String etag = catalogTag();
+                if (!HttpCaching.notModified(request, response, etag)
+                        && !(fields.selectsAll() && writeCached(TOP_KEY, etag, request, response))) {
+                    getTopLocations(etag, fields, request, response);
+                }
+            } else if (pathInfo.equals("/nearby")) {
+                // GET /api/locations/nearby?lat=..&lng=..&k=10 or &radius=0.5 (miles)
+                if (!catalogNotModified(request, response)) {
+                    getNearbyLocations(fields, request, response);
+                }
+            } else if (pathInfo.equals("/bbox")) {
+                // GET /api/locations/bbox?north=..&south=..&east=..&west=..[&lat=..&lng=..]
+                if (!catalogNotModified(request, response)) {
+                    getLocationsInBounds(fields, request, response);
+                }
             } else {
                 // GET /api/locations/{id} - Get specific location
+                // GET /api/locations/{id}/detail?fields=..&excerpt=.. - Everything the location modal shows
                 String[] parts = pathInfo.split("/");
                 if (parts.length > 1 && !parts[1].isEmpty()) {
                     try {
                         int locationId = Integer.parseInt(parts[1]);
-                        getLocationById(locationId, request, response);
+                        FieldSelection selection = fields;
+                        if (parts.length == 2) {
+                            RequestExecutor.getInstance().submit(request, response,
+                                (req, res) -> getLocationById(locationId, selection, req, res));
+                        } else if (parts.length == 3 && "detail".equals(parts[2])) {
+                            RequestExecutor.getInstance().submit(request, response,
+                                (req, res) -> getLocationDetail(locationId, req, res));
+                        } else {
+                            ApiServlets.sendError(response, "Invalid request", 400);
+                        }
                     } catch (NumberFormatException e) {
-                        sendError(response, "Invalid location ID", 400);
+                        ApiServlets.sendError(response, "Invalid location ID", 400);
                     }
                 } else {
-                    sendError(response, "Invalid request", 400);
+                    ApiServlets.sendError(response, "Invalid request", 400);
                 }
             }
         } catch (Exception e) {
             System.err.println("Error in LocationServlet: " + e.getMessage());
             e.printStackTrace();
-            sendError(response, "Internal server error", 500);
+            ApiServlets.sendError(response, "Internal server error", 500);
         }
     }
     
     /**
      * Get all locations
+     * Only the full representation is cached; sparse ones are cheap to
+     * write from the snapshot and would crowd the cache out
+     * @param etag Catalog version the body is cached under
      */
-    private void getAllLocations(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void getAllLocations(String etag, FieldSelection fields, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         try {
-            List<Location> locations = locationDAO.getAllLocations();
+            List<Location> locations = catalog.getSnapshot().getLocations();
             
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", true);
-            result.put("data", locations);
-            result.put("count", locations.size());
-            
-            response.getWriter().write(gson.toJson(result));
+            ApiResponse payload = ApiResponse.counted(LocationView.of(locations, fields));
+            if (fields.selectsAll()) {
+                writeAndCache(ALL_KEY, etag, payload, request, response);
+            } else {
+                ApiJson.write(response.getWriter(), payload);
+            }
             
         } catch (Exception e) {
             System.err.println("Error getting all locations: " + e.getMessage());
             e.printStackTrace();
-            sendError(response, "Failed to retrieve locations", 500);
+            ApiServlets.sendError(response, "Failed to retrieve locations", 500);
+        }
+    }
+    
+    /**
+     * Get several locations, each reported found or not on its own
+     * Served from the catalog; only IDs missing from it cost a query
+     */
+    private void getLocationsByIds(FieldSelection fields, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        List<Integer> ids;
+        try {
+            ids = IdList.parse(request.getParameter("ids"));
+        } catch (IllegalArgumentException e) {
+            ApiServlets.sendError(response, e.getMessage(), 400);
+            return;
+        }
+        
+        if (catalogNotModified(request, response)) {
+            return;
+        }
+        
+        Map<Integer, Location> found = catalog.findLocations(ids);
+        
+        List<BatchItem> items = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            if (found == null) {
+                items.add(BatchItem.failed(id, "Failed to retrieve location"));
+            } else if (found.containsKey(id)) {
+                items.add(BatchItem.found(id, LocationView.of(found.get(id), fields)));
+            } else {
+                items.add(BatchItem.failed(id, "Location not found"));
+            }
         }
+        
+        ApiJson.write(response.getWriter(), ApiResponse.counted(items));
     }
     
     /**
      * Get top rated locations
+     * @param etag Catalog version the body is cached under
      */
-    private void getTopLocations(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void getTopLocations(String etag, FieldSelection fields, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         try {
-            List<Location> locations = locationDAO.getAllLocations();
+            List<Location> locations = catalog.getSnapshot().getLocations();
             
             // Sort by rating and limit to top 3
             List<Location> topLocations = locations.stream()
@@ -99,59 +226,284 @@ public class LocationServlet extends HttpServlet {
                 .limit(3)
                 .toList();
             
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", true);
-            result.put("data", topLocations);
-            
-            response.getWriter().write(gson.toJson(result));
+            ApiResponse payload = ApiResponse.of(LocationView.of(topLocations, fields));
+            if (fields.selectsAll()) {
+                writeAndCache(TOP_KEY, etag, payload, request, response);
+            } else {
+                ApiJson.write(response.getWriter(), payload);
+            }
             
         } catch (Exception e) {
             System.err.println("Error getting top locations: " + e.getMessage());
             e.printStackTrace();
-            sendError(response, "Failed to retrieve top locations", 500);
+            ApiServlets.sendError(response, "Failed to retrieve top locations", 500);
+        }
+    }
+    
+    /**
+     * Get locations near a point, either the k nearest or all within a radius
+     */
+    private void getNearbyLocations(FieldSelection fields, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Double lat = ApiServlets.parseDouble(request.getParameter("lat"));
+        Double lng = ApiServlets.parseDouble(request.getParameter("lng"));
+        if (lat == null || lng == null || !GeoUtils.isValidCoordinate(lat, lng)) {
+            ApiServlets.sendError(response, "Valid lat and lng parameters are required", 400);
+            return;
+        }
+        
+        SpatialIndex index = catalog.getSnapshot().getSpatialIndex();
+        List<Location> locations;
+        
+        String radiusStr = request.getParameter("radius");
+        if (radiusStr != null) {
+            Double radius = ApiServlets.parseDouble(radiusStr);
+            if (radius == null || radius <= 0 || radius > MAX_RADIUS_MILES) {
+                ApiServlets.sendError(response, "radius must be between 0 and " + MAX_RADIUS_MILES + " miles", 400);
+                return;
+            }
+            locations = index.withinRadius(lat, lng, radius);
+        } else {
+            String kStr = request.getParameter("k");
+            int k;
+            try {
+                k = kStr != null ? Integer.parseInt(kStr) : DEFAULT_NEARBY_COUNT;
+            } catch (NumberFormatException e) {
+                ApiServlets.sendError(response, "Invalid k", 400);
+                return;
+            }
+            if (k < 1 || k > MAX_NEARBY_COUNT) {
+                ApiServlets.sendError(response, "k must be between 1 and " + MAX_NEARBY_COUNT, 400);
+                return;
+            }
+            locations = index.nearest(lat, lng, k);
         }
+        
+        writeLocations(response, locations, fields);
+    }
+    
+    /**
+     * Get locations inside a map viewport
+     * If lat/lng are given, distance from that point is filled in
+     */
+    private void getLocationsInBounds(FieldSelection fields, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Double north = ApiServlets.parseDouble(request.getParameter("north"));
+        Double south = ApiServlets.parseDouble(request.getParameter("south"));
+        Double east = ApiServlets.parseDouble(request.getParameter("east"));
+        Double west = ApiServlets.parseDouble(request.getParameter("west"));
+        if (north == null || south == null || east == null || west == null || south > north || west > east) {
+            ApiServlets.sendError(response, "Valid north, south, east and west parameters are required", 400);
+            return;
+        }
+        
+        List<Location> locations = catalog.getSnapshot().getSpatialIndex().withinBounds(south, west, north, east);
+        
+        Double lat = ApiServlets.parseDouble(request.getParameter("lat"));
+        Double lng = ApiServlets.parseDouble(request.getParameter("lng"));
+        if (lat != null && lng != null) {
+            List<Location> withDistance = new ArrayList<>(locations.size());
+            for (Location location : locations) {
+                Location copy = new Location(location);
+                copy.setDistance(GeoUtils.roundMiles(
+                    GeoUtils.distanceMiles(lat, lng, location.getLat(), location.getLng())));
+                withDistance.add(copy);
+            }
+            locations = withDistance;
+        }
+        
+        writeLocations(response, locations, fields);
     }
     
     /**
      * Get specific location by ID
      */
-    private void getLocationById(int locationId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void getLocationById(int locationId, FieldSelection fields, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         try {
-            Location location = locationDAO.getLocationById(locationId);
+            if (HttpCaching.notModified(request, response, DataVersions.current().locationTag(locationId))) {
+                return;
+            }
             
-            Map<String, Object> result = new HashMap<>();
+            Location location = catalog.getSnapshot().getLocation(locationId);
+            if (location == null) {
+                // Not in the snapshot yet, e.g. created since the last rebuild
+                location = locationDAO.getLocationById(locationId);
+            }
             
-            if (location != null) {
-                double rating = locationDAO.getAverageRating(locationId);
-                location.setRating(rating);
-                
-                result.put("success", true);
-                result.put("data", location);
-            } else {
-                result.put("success", false);
-                result.put("error", "Location not found");
-                response.setStatus(404);
+            if (location == null) {
+                ApiServlets.sendError(response, "Location not found", 404);
+                return;
             }
             
-            response.getWriter().write(gson.toJson(result));
+            ApiJson.write(response.getWriter(), ApiResponse.of(LocationView.of(location, fields)));
             
         } catch (Exception e) {
             System.err.println("Error getting location by ID: " + e.getMessage());
             e.printStackTrace();
-            sendError(response, "Failed to retrieve location", 500);
+            ApiServlets.sendError(response, "Failed to retrieve location", 500);
         }
     }
     
     /**
-     * Send error response
+     * Get a location with its rating, review count, star histogram and top reviews
+     * Location, rating and count come from the catalog and top reviews from
+     * TopReviewsCache; only the histogram needs a query, one indexed row
+     * that also supplies rating and count so the three agree
      */
-    private void sendError(HttpServletResponse response, String message, int statusCode) throws IOException {
-        response.setStatus(statusCode);
+    private void getLocationDetail(int locationId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        FieldSelection fields;
+        ReviewFields reviewFields;
+        try {
+            fields = FieldSelection.parse(request.getParameter("fields"), LocationDetail.FIELDS);
+            // excerpt= trims the top reviews' bodies
+            reviewFields = ReviewFields.parse(null, request.getParameter("excerpt"));
+        } catch (IllegalArgumentException e) {
+            ApiServlets.sendError(response, e.getMessage(), 400);
+            return;
+        }
+        
+        try {
+            // Covers the location, its reviews and their authors' names
+            if (HttpCaching.notModified(request, response, DataVersions.current().reviewsTag(locationId))) {
+                return;
+            }
+            
+            Location location = catalog.getSnapshot().getLocation(locationId);
+            if (location == null) {
+                location = locationDAO.getLocationById(locationId);
+            }
+            if (location == null) {
+                ApiServlets.sendError(response, "Location not found", 404);
+                return;
+            }
+            
+            double rating = location.getRating();
+            int reviewCount = location.getReviewCount();
+            int[] histogram = null;
+            if (fields.includes(LocationDetail.HISTOGRAM)) {
+                RatingAggregate aggregate = ratingAggregateDAO.getByLocation(locationId);
+                if (aggregate == null) {
+                    sendDetailError(response);
+                    return;
+                }
+                rating = aggregate.getAvgRating();
+                reviewCount = aggregate.getReviewCount();
+                histogram = aggregate.getHistogram();
+            }
+            
+            List<ReviewDTO> topReviews = null;
+            if (fields.includes(LocationDetail.TOP_REVIEWS)) {
+                List<Review> reviews = TopReviewsCache.getInstance().getTopReviews(locationId, DETAIL_TOP_REVIEWS);
+                if (reviews == null) {
+                    sendDetailError(response);
+                    return;
+                }
+                topReviews = ReviewDTO.fromAll(reviews, reviewFields);
+            }
+            
+            LocationDetail detail = new LocationDetail(
+                locationId,
+                fields.includes(LocationDetail.LOCATION) ? location : null,
+                fields.includes(LocationDetail.RATING) ? rating : null,
+                fields.includes(LocationDetail.REVIEW_COUNT) ? reviewCount : null,
+                histogram,
+                topReviews
+            );
+            
+            // Review text is user input in any script, as in ReviewServlet
+            response.setCharacterEncoding("UTF-8");
+            ApiJson.write(response.getWriter(), ApiResponse.of(detail));
+            
+        } catch (Exception e) {
+            System.err.println("Error getting location detail: " + e.getMessage());
+            e.printStackTrace();
+            sendDetailError(response);
+        }
+    }
+    
+    /**
+     * Send a 500 for the detail endpoint without the ETag already set for it,
+     * so clients don't revalidate the error as the location's detail
+     */
+    private void sendDetailError(HttpServletResponse response) throws IOException {
+        HttpCaching.discardValidators(response);
+        ApiServlets.sendError(response, "Failed to retrieve location detail", 500);
+    }
+    
+    /**
+     * Answer 304 if the client's copy of the catalog is still current
+     * @return true if a 304 was sent
+     */
+    private boolean catalogNotModified(HttpServletRequest request, HttpServletResponse response) {
+        return HttpCaching.notModified(request, response, catalogTag());
+    }
+    
+    /**
+     * Current catalog ETag, read before any catalog data
+     */
+    private String catalogTag() {
+        return DataVersions.current().catalogTag();
+    }
+    
+    /**
+     * Write the cached body for this catalog version, if there is one
+     * @return true if the response was written from the cache
+     */
+    private boolean writeCached(String key, String etag, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ResponseCache.Entry entry = responseCache.get(cacheKey(key, response), etag);
+        if (entry == null) {
+            return false;
+        }
+        writeEntry(entry, request, response);
+        return true;
+    }
+    
+    /**
+     * Serialize a response once, cache the encoded bytes and write them
+     */
+    private void writeAndCache(String key, String etag, ApiResponse payload,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] body = ApiJson.toBytes(payload, Charset.forName(response.getCharacterEncoding()));
+        writeEntry(responseCache.put(cacheKey(key, response), etag, body), request, response);
+    }
+    
+    /**
+     * Copy a cached body straight to the output stream
+     * The gzip variant carries its own Content-Encoding, so CompressionFilter
+     * passes it through instead of compressing it again
+     */
+    private void writeEntry(ResponseCache.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = CompressionFilter.acceptsGzip(request);
+        ByteBuffer body = entry.body(gzip);
         
-        Map<String, Object> error = new HashMap<>();
-        error.put("success", false);
-        error.put("error", message);
+        response.addHeader("Vary", "Accept-Encoding");
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(body.remaining());
         
-        response.getWriter().write(gson.toJson(error));
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        while (body.hasRemaining()) {
+            channel.write(body);
+        }
+    }
+    
+    /**
+     * Cache key for an endpoint in the response's character encoding
+     */
+    private String cacheKey(String key, HttpServletResponse response) {
+        return key + ";" + response.getCharacterEncoding();
+    }
+    
+    /**
+     * Write a list of locations in the standard success envelope, with count
+     */
+    private void writeLocations(HttpServletResponse response, List<Location> locations, FieldSelection fields)
+            throws IOException {
+        ApiJson.write(response.getWriter(), ApiResponse.counted(LocationView.of(locations, fields)));
     }
 }
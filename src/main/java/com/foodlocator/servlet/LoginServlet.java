@@ -5,6 +5,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
+import com.foodlocator.cache.UserProfileCache;
 import com.foodlocator.util.DatabaseConnection;
 
 import jakarta.servlet.ServletException;
@@ -24,10 +25,10 @@ public class LoginServlet extends HttpServlet {
         String username = request.getParameter("username");
         String password = request.getParameter("password");
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
-            PreparedStatement ps = conn.prepareStatement(
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement ps = conn.prepareStatement(
                 "SELECT id, username FROM users WHERE username = ? AND password = ?"
-            );
+             )) {
             ps.setString(1, username);
             ps.setString(2, password);
             ResultSet rs = ps.executeQuery();
@@ -35,8 +36,11 @@ public class LoginServlet extends HttpServlet {
             if (rs.next()) {
                 // Login successful - create session and redirect
                 HttpSession session = request.getSession();
-                session.setAttribute("userId", rs.getInt("id"));
-                session.setAttribute("username", rs.getString("username"));
+                int userId = rs.getInt("id");
+                String name = rs.getString("username");
+                UserProfileCache.getInstance().put(userId, name);
+                session.setAttribute("userId", userId);
+                session.setAttribute("username", name);
                 response.sendRedirect(request.getContextPath() + "/");
             } else {
                 // Login failed - forward with error message
@@ -2,17 +2,34 @@ package com.foodlocator.servlet;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import com.foodlocator.cache.DataVersions;
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.cache.TopReviewsCache;
+import com.foodlocator.dao.ReviewCursor;
 import com.foodlocator.dao.ReviewDAO;
-import com.foodlocator.dao.UserDAO;
+import com.foodlocator.dao.ReviewProjection;
+import com.foodlocator.dao.ReviewSort;
+import com.foodlocator.dto.ApiError;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.dto.ApiResponse;
+import com.foodlocator.dto.BatchItem;
+import com.foodlocator.dto.ReviewCreated;
+import com.foodlocator.dto.ReviewCursorPage;
+import com.foodlocator.dto.ReviewDTO;
+import com.foodlocator.dto.ReviewFields;
+import com.foodlocator.dto.ReviewPage;
+import com.foodlocator.dto.ReviewSubmission;
+import com.foodlocator.dto.UserReviewDTO;
+import com.foodlocator.model.Location;
 import com.foodlocator.model.Review;
-import com.foodlocator.model.User;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.foodlocator.util.BoundedReader;
+import com.foodlocator.util.HttpCaching;
+import com.foodlocator.util.IdList;
+import com.foodlocator.util.RequestExecutor;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -24,24 +41,41 @@ import jakarta.servlet.http.HttpSession;
 /**
  * Servlet for handling review-related requests
  * Supports GET (retrieve reviews), POST (create review), DELETE (remove)
+ * Location review reads take fields= and excerpt= to trim each review
+ * Requests run on RequestExecutor, since nearly all of them query MySQL
  */
-@WebServlet("/api/reviews/*")
+@WebServlet(urlPatterns = "/api/reviews/*", asyncSupported = true)
 public class ReviewServlet extends HttpServlet {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    // Reviews per location from the /top endpoints
+    private static final int TOP_REVIEW_COUNT = 3;
+    // Well above a maximal review; anything larger is not a legitimate submission
+    private static final int MAX_REQUEST_BODY_CHARS = 16 * 1024;
+    // Content-Length counts bytes; a UTF-8 character takes up to 4
+    private static final long MAX_REQUEST_BODY_BYTES = MAX_REQUEST_BODY_CHARS * 4L;
+    
     private ReviewDAO reviewDAO;
-    private UserDAO userDAO;
-    private Gson gson;
     
     @Override
     public void init() throws ServletException {
         reviewDAO = new ReviewDAO();
-        userDAO = new UserDAO();
-        gson = new Gson();
     }
     
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
+        RequestExecutor.getInstance().submit(request, response, this::handleGet);
+    }
+    
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        RequestExecutor.getInstance().submit(request, response, this::handlePost);
+    }
+    
+    private void handleGet(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
         
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
@@ -61,18 +95,44 @@ public class ReviewServlet extends HttpServlet {
             // NEW: Check if path is /user/{userId}
             if ("user".equals(pathParts[0]) && pathParts.length > 1) {
                 int userId = Integer.parseInt(pathParts[1]);
-                getUserReviews(userId, response, out);
+                if (HttpCaching.notModified(request, response, DataVersions.current().userReviewsTag(userId))) {
+                    return;
+                }
+                getUserReviews(userId, request, response, out);
+                return;
+            }
+
+            // Any of the endpoints below also take &fields=id,rating,..&excerpt=200
+            ReviewFields fields;
+            try {
+                fields = ReviewFields.parse(request.getParameter("fields"), request.getParameter("excerpt"));
+            } catch (IllegalArgumentException e) {
+                sendErrorResponse(response, out, e.getMessage(), HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+
+            if ("top".equals(pathParts[0]) && pathParts.length == 1) {
+                // GET /api/reviews/top?ids=1,2,3 - Top reviews of several locations
+                getTopReviewsBatch(fields, request, response, out);
                 return;
             }
 
             int locationId = Integer.parseInt(pathParts[0]);
+            if (HttpCaching.notModified(request, response, DataVersions.current().reviewsTag(locationId))) {
+                return;
+            }
             
             if (pathParts.length > 1 && "top".equals(pathParts[1])) {
                 // GET /api/reviews/{locationId}/top - Get top 3 reviews
-                getTopReviews(locationId, response, out);
+                getTopReviews(locationId, fields, response, out);
             } else {
                 // GET /api/reviews/{locationId}?page=1&pageSize=10&sortBy=recent
-                getAllReviews(locationId, request, response, out);
+                // or  /api/reviews/{locationId}?cursor=<token>&pageSize=10&sortBy=recent
+                if (request.getParameter("cursor") != null) {
+                    getReviewsAfterCursor(locationId, fields, request, response, out);
+                } else {
+                    getAllReviews(locationId, fields, request, response, out);
+                }
             }
             
         } catch (NumberFormatException e) {
@@ -87,31 +147,43 @@ public class ReviewServlet extends HttpServlet {
 
 
 // NEW METHOD: Get all reviews by a specific user
-private void getUserReviews(int userId, HttpServletResponse response, PrintWriter out) {
+// With ?cursor=<token>&pageSize=N the reviews come one keyset page at a time
+private void getUserReviews(int userId, HttpServletRequest request, HttpServletResponse response, PrintWriter out)
+        throws IOException {
     try {
-        List<Review> reviews = reviewDAO.getReviewsByUser(userId);
+        boolean paged = request.getParameter("cursor") != null || request.getParameter("pageSize") != null;
+        String nextCursor = null;
+        List<Review> reviews;
         
-        // Transform reviews to include location name
-        List<Map<String, Object>> transformedReviews = reviews.stream().map(review -> {
-            Map<String, Object> reviewMap = new HashMap<>();
-            
-            reviewMap.put("id", review.getReviewID());
-            reviewMap.put("locationID", review.getLocationID());
-            reviewMap.put("locationName", review.getLocationName()); // Assuming you add this field
-            reviewMap.put("rating", review.getRating());
-            reviewMap.put("title", review.getTitle());
-            reviewMap.put("body", review.getBody());
-            reviewMap.put("createdAt", review.getCreatedAt().toString());
+        if (paged) {
+            int pageSize = parsePageSize(request.getParameter("pageSize"));
+            ReviewCursor after = decodeCursor(request.getParameter("cursor"));
+            if (after != null && after.getSort() != ReviewSort.RECENT) {
+                sendErrorResponse(response, out, "Invalid cursor", HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
             
-            return reviewMap;
-        }).collect(Collectors.toList());
+            // Fetch one extra row to learn whether another page exists
+            reviews = reviewDAO.getReviewsByUser(userId, after, pageSize + 1);
+            if (reviews.size() > pageSize) {
+                reviews = reviews.subList(0, pageSize);
+                nextCursor = ReviewCursor.after(ReviewSort.RECENT, reviews.get(pageSize - 1)).encode();
+            }
+        } else {
+            reviews = reviewDAO.getReviewsByUser(userId);
+        }
         
-        Map<String, Object> jsonResponse = new HashMap<>();
-        jsonResponse.put("success", true);
-        jsonResponse.put("data", transformedReviews);
+        List<UserReviewDTO> data = new ArrayList<>(reviews.size());
+        for (Review review : reviews) {
+            data.add(UserReviewDTO.from(review));
+        }
         
-        out.print(gson.toJson(jsonResponse));
         response.setStatus(HttpServletResponse.SC_OK);
+        ApiJson.write(out, paged ? ApiResponse.paged(data, nextCursor) : ApiResponse.of(data));
+    } catch (NumberFormatException e) {
+        sendErrorResponse(response, out, "Invalid pageSize", HttpServletResponse.SC_BAD_REQUEST);
+    } catch (IllegalArgumentException e) {
+        sendErrorResponse(response, out, "Invalid cursor", HttpServletResponse.SC_BAD_REQUEST);
     } catch (Exception e) {
         System.err.println("Error getting user reviews: " + e.getMessage());
         e.printStackTrace();
@@ -119,36 +191,18 @@ private void getUserReviews(int userId, HttpServletResponse response, PrintWrite
     }
 }
 
-    private void getTopReviews(int locationId, HttpServletResponse response, PrintWriter out) {
+    private void getTopReviews(int locationId, ReviewFields fields, HttpServletResponse response, PrintWriter out)
+            throws IOException {
         try {
-            List<Review> reviews = reviewDAO.getTopReviewsByLocation(locationId, 3);
-            
-            // Transform reviews to include author name
-            List<Map<String, Object>> transformedReviews = reviews.stream().map(review -> {
-                Map<String, Object> reviewMap = new HashMap<>();
-                User user = userDAO.getUserById(review.getUserID());
-                String authorName = user != null ? user.getName() : "Anonymous";
-                
-                reviewMap.put("id", review.getReviewID());
-                reviewMap.put("locationID", review.getLocationID());
-                reviewMap.put("userID", review.getUserID());
-                reviewMap.put("rating", review.getRating());
-                reviewMap.put("title", review.getTitle());
-                reviewMap.put("body", review.getBody());
-                reviewMap.put("author", authorName);
-                reviewMap.put("createdAt", review.getCreatedAt().toString());
-                reviewMap.put("tags", new String[]{});
-                reviewMap.put("helpfulCount", 0);
-                
-                return reviewMap;
-            }).collect(Collectors.toList());
-            
-            Map<String, Object> jsonResponse = new HashMap<>();
-            jsonResponse.put("success", true);
-            jsonResponse.put("data", transformedReviews);
+            List<Review> reviews = TopReviewsCache.getInstance().getTopReviews(locationId, TOP_REVIEW_COUNT);
+            if (reviews == null) {
+                HttpCaching.discardValidators(response);
+                sendErrorResponse(response, out, "Error retrieving reviews", HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return;
+            }
             
-            out.print(gson.toJson(jsonResponse));
             response.setStatus(HttpServletResponse.SC_OK);
+            ApiJson.write(out, ApiResponse.of(ReviewDTO.fromAll(reviews, fields)));
         } catch (Exception e) {
             System.err.println("Error getting top reviews: " + e.getMessage());
             e.printStackTrace();
@@ -156,83 +210,152 @@ private void getUserReviews(int userId, HttpServletResponse response, PrintWrite
         }
     }
     
-    private void getAllReviews(int locationId, HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+    /**
+     * Top reviews of several locations, each reported found or not on its own
+     * Locations come from the catalog and reviews from TopReviewsCache, so
+     * at most one query checks unknown locations and one loads uncached reviews
+     */
+    private void getTopReviewsBatch(ReviewFields fields, HttpServletRequest request, HttpServletResponse response,
+            PrintWriter out) throws IOException {
+        List<Integer> ids;
+        try {
+            ids = IdList.parse(request.getParameter("ids"));
+        } catch (IllegalArgumentException e) {
+            sendErrorResponse(response, out, e.getMessage(), HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        
+        if (HttpCaching.notModified(request, response, DataVersions.current().reviewsTag())) {
+            return;
+        }
+        
+        Map<Integer, Location> locations = LocationCatalog.getInstance().findLocations(ids);
+        if (locations == null) {
+            sendErrorResponse(response, out, "Error retrieving reviews", HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        
+        // Only existing locations reach the cache, so unknown IDs never take up entries
+        List<Integer> known = new ArrayList<>();
+        for (int id : ids) {
+            if (locations.containsKey(id)) {
+                known.add(id);
+            }
+        }
+        Map<Integer, List<Review>> top = TopReviewsCache.getInstance().getTopReviews(known, TOP_REVIEW_COUNT);
+        
+        List<BatchItem> items = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            if (!locations.containsKey(id)) {
+                items.add(BatchItem.failed(id, "Location not found"));
+            } else if (!top.containsKey(id)) {
+                items.add(BatchItem.failed(id, "Error retrieving reviews"));
+            } else {
+                items.add(BatchItem.found(id, ReviewDTO.fromAll(top.get(id), fields)));
+            }
+        }
+        
+        response.setStatus(HttpServletResponse.SC_OK);
+        ApiJson.write(out, ApiResponse.counted(items));
+    }
+    
+    private void getAllReviews(int locationId, ReviewFields fields, HttpServletRequest request,
+            HttpServletResponse response, PrintWriter out) throws IOException {
         try {
             String pageStr = request.getParameter("page");
             String pageSizeStr = request.getParameter("pageSize");
-            String sortBy = request.getParameter("sortBy");
+            ReviewSort sort = ReviewSort.fromParam(request.getParameter("sortBy"));
             
             int page = pageStr != null ? Integer.parseInt(pageStr) : 1;
             int pageSize = pageSizeStr != null ? Integer.parseInt(pageSizeStr) : 10;
-            if (sortBy == null || sortBy.isEmpty()) {
-                sortBy = "recent";
-            }
+            page = Math.max(page, 1);
+            pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
             
-            List<Review> reviews = reviewDAO.getReviewsByLocation(locationId);
-            
-            // Sort reviews based on sortBy parameter
-            if ("rating-high".equals(sortBy)) {
-                reviews.sort((a, b) -> Double.compare(b.getRating(), a.getRating()));
-            } else if ("rating-low".equals(sortBy)) {
-                reviews.sort((a, b) -> Double.compare(a.getRating(), b.getRating()));
-            } else if ("helpful".equals(sortBy)) {
-                // For now, sort by rating as a proxy for helpful
-                reviews.sort((a, b) -> Double.compare(b.getRating(), a.getRating()));
-            } else {
-                // Default: "recent" - sort by createdAt descending
-                reviews.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-            }
-            
-            int totalReviews = reviews.size();
+            // Count comes from the rating aggregate, the page is sorted and limited in SQL
+            int totalReviews = reviewDAO.getReviewCount(locationId);
             int totalPages = (int) Math.ceil((double) totalReviews / pageSize);
+            List<Review> pageReviews = reviewDAO.getReviewsByLocation(locationId, page, pageSize, sort,
+                projectionFor(fields));
             
-            // Paginate
-            int startIndex = (page - 1) * pageSize;
-            int endIndex = Math.min(startIndex + pageSize, reviews.size());
-            List<Review> pageReviews = reviews.subList(startIndex, endIndex);
+            ReviewPage data = new ReviewPage(ReviewDTO.fromAll(pageReviews, fields), page, totalPages,
+                totalReviews, pageSize);
             
-            // Transform reviews to include author name
-            List<Map<String, Object>> transformedReviews = pageReviews.stream().map(review -> {
-                Map<String, Object> reviewMap = new HashMap<>();
-                User user = userDAO.getUserById(review.getUserID());
-                String authorName = user != null ? user.getName() : "Anonymous";
-                
-                reviewMap.put("id", review.getReviewID());
-                reviewMap.put("locationID", review.getLocationID());
-                reviewMap.put("userID", review.getUserID());
-                reviewMap.put("rating", review.getRating());
-                reviewMap.put("title", review.getTitle());
-                reviewMap.put("body", review.getBody());
-                reviewMap.put("author", authorName);
-                reviewMap.put("createdAt", review.getCreatedAt().toString());
-                reviewMap.put("tags", new String[]{});
-                reviewMap.put("helpfulCount", 0);
-                
-                return reviewMap;
-            }).collect(Collectors.toList());
+            response.setStatus(HttpServletResponse.SC_OK);
+            ApiJson.write(out, ApiResponse.of(data));
+        } catch (Exception e) {
+            System.err.println("Error getting all reviews: " + e.getMessage());
+            e.printStackTrace();
+            sendErrorResponse(response, out, "Error retrieving reviews", HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Keyset-paged reviews for a location
+     * An empty cursor starts at the top; each response carries the cursor
+     * for the next page, or null when there are no more reviews
+     */
+    private void getReviewsAfterCursor(int locationId, ReviewFields fields, HttpServletRequest request,
+            HttpServletResponse response, PrintWriter out) throws IOException {
+        try {
+            ReviewSort sort = ReviewSort.fromParam(request.getParameter("sortBy"));
+            int pageSize = parsePageSize(request.getParameter("pageSize"));
+            ReviewCursor after = decodeCursor(request.getParameter("cursor"));
+            if (after != null && after.getSort() != sort) {
+                sendErrorResponse(response, out, "Cursor does not match sortBy", HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
             
-            Map<String, Object> data = new HashMap<>();
-            data.put("reviews", transformedReviews);
-            data.put("currentPage", page);
-            data.put("totalPages", totalPages);
-            data.put("totalReviews", totalReviews);
-            data.put("pageSize", pageSize);
+            // Fetch one extra row to learn whether another page exists
+            List<Review> reviews = reviewDAO.getReviewsByLocation(locationId, after, pageSize + 1, sort,
+                projectionFor(fields));
+            String nextCursor = null;
+            if (reviews.size() > pageSize) {
+                reviews = reviews.subList(0, pageSize);
+                nextCursor = ReviewCursor.after(sort, reviews.get(pageSize - 1)).encode();
+            }
+            
+            int totalReviews = reviewDAO.getReviewCount(locationId);
             
-            Map<String, Object> jsonResponse = new HashMap<>();
-            jsonResponse.put("success", true);
-            jsonResponse.put("data", data);
+            ReviewCursorPage data = new ReviewCursorPage(ReviewDTO.fromAll(reviews, fields), pageSize,
+                totalReviews, nextCursor);
             
-            out.print(gson.toJson(jsonResponse));
             response.setStatus(HttpServletResponse.SC_OK);
+            ApiJson.write(out, ApiResponse.of(data));
+        } catch (NumberFormatException e) {
+            sendErrorResponse(response, out, "Invalid pageSize", HttpServletResponse.SC_BAD_REQUEST);
+        } catch (IllegalArgumentException e) {
+            sendErrorResponse(response, out, "Invalid cursor", HttpServletResponse.SC_BAD_REQUEST);
         } catch (Exception e) {
-            System.err.println("Error getting all reviews: " + e.getMessage());
+            System.err.println("Error getting reviews after cursor: " + e.getMessage());
             e.printStackTrace();
             sendErrorResponse(response, out, "Error retrieving reviews", HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         }
     }
     
-    @Override
-    protected void doPost(HttpServletRequest request, HttpServletResponse response) 
+    /**
+     * Columns the DAO has to read for the selected fields
+     * Title and body are the only wide columns, so only they are left out
+     */
+    private ReviewProjection projectionFor(ReviewFields fields) {
+        return ReviewProjection.of(fields.includes(ReviewFields.TITLE), fields.includes(ReviewFields.BODY),
+            fields.getExcerptLength());
+    }
+    
+    /**
+     * Decode the cursor request parameter
+     * @return Cursor, or null for the first page
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    private ReviewCursor decodeCursor(String token) {
+        return token == null || token.isEmpty() ? null : ReviewCursor.decode(token);
+    }
+    
+    private int parsePageSize(String pageSizeStr) {
+        int pageSize = pageSizeStr != null ? Integer.parseInt(pageSizeStr) : 10;
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+    
+    private void handlePost(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
         
         response.setContentType("application/json");
@@ -251,81 +374,53 @@ private void getUserReviews(int userId, HttpServletResponse response, PrintWrite
                 }
             }
             
-            // Read request body
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = request.getReader().readLine()) != null) {
-                sb.append(line);
-            }
-            
-            // Parse JSON
-            JsonObject jsonRequest = gson.fromJson(sb.toString(), JsonObject.class);
-            
-            int locationID = jsonRequest.get("locationID").getAsInt();
-            double rating = jsonRequest.get("rating").getAsDouble();
-            String title = jsonRequest.get("title").getAsString();
-            String body = jsonRequest.get("body").getAsString();
-            
-            // Validate input
-            if (rating < 0 || rating > 5) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("error", "Rating must be between 0 and 5");
-                out.print(gson.toJson(errorResponse));
-                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            // Reject oversized bodies up front when the client declares the size
+            if (request.getContentLengthLong() > MAX_REQUEST_BODY_BYTES) {
+                sendErrorResponse(response, out, "Request body too large", HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
                 return;
             }
+            if (request.getCharacterEncoding() == null) {
+                request.setCharacterEncoding("UTF-8");
+            }
             
-            if (title == null || title.isEmpty() || body == null || body.isEmpty()) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("error", "Title and body are required");
-                out.print(gson.toJson(errorResponse));
-                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            // Parse and validate straight from the body stream
+            ReviewSubmission submission;
+            try {
+                submission = ReviewSubmission.read(new BoundedReader(request.getReader(), MAX_REQUEST_BODY_CHARS));
+            } catch (BoundedReader.LimitExceededException e) {
+                sendErrorResponse(response, out, "Request body too large", HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            } catch (IllegalArgumentException e) {
+                sendErrorResponse(response, out, e.getMessage(), HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            } catch (IOException e) {
+                sendErrorResponse(response, out, "Invalid JSON", HttpServletResponse.SC_BAD_REQUEST);
                 return;
             }
             
             // Create review
-            Review newReview = new Review(locationID, userID, rating, title, body);
+            Review newReview = new Review(submission.getLocationID(), userID, submission.getRating(),
+                                          submission.getTitle(), submission.getBody());
             boolean created = reviewDAO.createReview(newReview);
             
             if (created) {
-                // UPDATE: Recalculate and update location rating
-                reviewDAO.updateLocationRating(locationID);
-                
-                Map<String, Object> responseData = new HashMap<>();
-                responseData.put("success", true);
-                responseData.put("message", "Review created successfully");
-                responseData.put("reviewID", newReview.getReviewID());
-                responseData.put("review", newReview);
-                
-                out.print(gson.toJson(responseData));
                 response.setStatus(HttpServletResponse.SC_CREATED);
+                ApiJson.write(out, ReviewCreated.from(newReview));
             } else {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("error", "Failed to create review");
-                out.print(gson.toJson(errorResponse));
-                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                sendErrorResponse(response, out, "Failed to create review", HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             }
             
         } catch (Exception e) {
             System.err.println("Error creating review: " + e.getMessage());
             e.printStackTrace();
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("error", "Internal server error");
-            out.print(gson.toJson(errorResponse));
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            sendErrorResponse(response, out, "Internal server error", HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         }
     }
     
-    private void sendErrorResponse(HttpServletResponse response, PrintWriter out, String message, int status) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("success", false);
-        errorResponse.put("error", message);
-        out.print(gson.toJson(errorResponse));
+    private void sendErrorResponse(HttpServletResponse response, PrintWriter out, String message, int status)
+            throws IOException {
         response.setStatus(status);
+        ApiJson.write(out, new ApiError(message));
     }
 
  
@@ -6,6 +6,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 
+import com.foodlocator.cache.UserProfileCache;
 import com.foodlocator.util.DatabaseConnection;
 
 import jakarta.servlet.ServletException;
@@ -44,44 +45,49 @@ public class SignupServlet extends HttpServlet {
         try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
 
             // ==== CHECK EMAIL ====
-            PreparedStatement checkEmail = conn.prepareStatement(
+            try (PreparedStatement checkEmail = conn.prepareStatement(
                 "SELECT id FROM users WHERE email = ?"
-            );
-            checkEmail.setString(1, email);
-            ResultSet rs1 = checkEmail.executeQuery();
-
-            if (rs1.next()) {
-                request.setAttribute("signupError", "Email already exists.");
-                request.getRequestDispatcher("jsp/signup.jsp").forward(request, response);
-                return;
+            )) {
+                checkEmail.setString(1, email);
+                ResultSet rs1 = checkEmail.executeQuery();
+
+                if (rs1.next()) {
+                    request.setAttribute("signupError", "Email already exists.");
+                    request.getRequestDispatcher("jsp/signup.jsp").forward(request, response);
+                    return;
+                }
             }
 
             // ==== CHECK USERNAME ====
-            PreparedStatement checkUser = conn.prepareStatement(
+            try (PreparedStatement checkUser = conn.prepareStatement(
                 "SELECT id FROM users WHERE username = ?"
-            );
-            checkUser.setString(1, username);
-            ResultSet rs2 = checkUser.executeQuery();
-
-            if (rs2.next()) {
-                request.setAttribute("signupError", "Username already exists.");
-                request.getRequestDispatcher("jsp/signup.jsp").forward(request, response);
-                return;
+            )) {
+                checkUser.setString(1, username);
+                ResultSet rs2 = checkUser.executeQuery();
+
+                if (rs2.next()) {
+                    request.setAttribute("signupError", "Username already exists.");
+                    request.getRequestDispatcher("jsp/signup.jsp").forward(request, response);
+                    return;
+                }
             }
 
             // ==== CREATE USER ====
-            PreparedStatement insert = conn.prepareStatement(
+            int userId;
+            try (PreparedStatement insert = conn.prepareStatement(
                 "INSERT INTO users (email, username, password) VALUES (?, ?, ?)",
                 Statement.RETURN_GENERATED_KEYS
-            );
-            insert.setString(1, email);
-            insert.setString(2, username);
-            insert.setString(3, password);
-            insert.executeUpdate();
-
-            ResultSet keys = insert.getGeneratedKeys();
-            keys.next();
-            int userId = keys.getInt(1);
+            )) {
+                insert.setString(1, email);
+                insert.setString(2, username);
+                insert.setString(3, password);
+                insert.executeUpdate();
+
+                ResultSet keys = insert.getGeneratedKeys();
+                keys.next();
+                userId = keys.getInt(1);
+            }
+            UserProfileCache.getInstance().put(userId, username);
 
             // Create session and redirect
             HttpSession session = request.getSession();
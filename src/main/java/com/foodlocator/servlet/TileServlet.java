@@ -0,0 +1,108 @@
+package com.foodlocator.servlet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.foodlocator.cache.MapTiles;
+import com.foodlocator.dto.ApiError;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.dto.ApiResponse;
+import com.foodlocator.dto.TileInfo;
+import com.foodlocator.util.FileSender;
+import com.foodlocator.util.HttpCaching;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet for campus map tiles
+ * GET /tiles - Pyramid version, tile size, max zoom and full image size
+ * GET /tiles/{version}/{zoom}/{x}/{y}.png - One tile, cached for a year
+ * since a new map image gets a new version
+ */
+@WebServlet("/tiles/*")
+public class TileServlet extends HttpServlet {
+
+    private MapTiles tiles;
+
+    @Override
+    public void init() {
+        tiles = MapTiles.getInstance();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String pathInfo = request.getPathInfo();
+
+        try {
+            MapTiles.Pyramid pyramid = tiles.getPyramid();
+            if (pyramid == null) {
+                sendError(response, "Map tiles are not available", 404);
+                return;
+            }
+
+            if (pathInfo == null || pathInfo.equals("/")) {
+                getTileInfo(pyramid, request, response);
+                return;
+            }
+
+            // /{version}/{zoom}/{x}/{y}.png
+            String[] parts = pathInfo.substring(1).split("/");
+            if (parts.length != 4 || !parts[3].endsWith(".png")) {
+                sendError(response, "Invalid tile path", 400);
+                return;
+            }
+            if (!parts[0].equals(pyramid.getVersion())) {
+                sendError(response, "Unknown tile version", 404);
+                return;
+            }
+
+            Path file;
+            try {
+                file = pyramid.tileFile(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3].substring(0, parts[3].length() - ".png".length())));
+            } catch (NumberFormatException e) {
+                sendError(response, "Invalid tile coordinates", 400);
+                return;
+            }
+            if (file == null || !Files.isRegularFile(file)) {
+                sendError(response, "Tile not found", 404);
+                return;
+            }
+
+            FileSender.send(request, response, file, "image/png", HttpCaching.IMMUTABLE_CACHE_CONTROL);
+
+        } catch (Exception e) {
+            System.err.println("Error in TileServlet: " + e.getMessage());
+            e.printStackTrace();
+            if (!response.isCommitted()) {
+                sendError(response, "Internal server error", 500);
+            }
+        }
+    }
+
+    /**
+     * Describe the current pyramid; revalidated so clients pick up a new map
+     */
+    private void getTileInfo(MapTiles.Pyramid pyramid, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType("application/json");
+        if (HttpCaching.notModified(request, response, "W/\"" + pyramid.getVersion() + "\"")) {
+            return;
+        }
+        ApiJson.write(response.getWriter(), ApiResponse.of(TileInfo.from(pyramid)));
+    }
+
+    /**
+     * Send error response
+     */
+    private void sendError(HttpServletResponse response, String message, int statusCode) throws IOException {
+        response.setStatus(statusCode);
+        response.setContentType("application/json");
+
+        ApiJson.write(response.getWriter(), new ApiError(message));
+    }
+}
@@ -0,0 +1,103 @@
+package com.foodlocator.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import com.foodlocator.cache.DataVersions;
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.cache.MapTiles;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.dto.ApiResponse;
+import com.foodlocator.dto.TileInfo;
+import com.foodlocator.model.Location;
+import com.google.gson.stream.JsonWriter;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Inline JSON that index.jsp hands to the client on first load
+ * Holds the same envelope GET /api/locations returns, the session's login
+ * state and the map tile pyramid, so the first render needs no API calls.
+ * The catalog part is serialized once per catalog version and reused.
+ * ApiJson escapes '<', '>' and '&', so the output is safe inside a script tag.
+ */
+public final class BootstrapData {
+
+    private static volatile Serialized catalog;
+
+    private BootstrapData() {}
+
+    /**
+     * Build the bootstrap object for a page request
+     * @param session Current session, or null
+     * @return JSON object with locations (null if the catalog is unavailable),
+     *         session and tiles
+     * @throws IOException if serialization fails
+     */
+    public static String json(HttpSession session) throws IOException {
+        StringWriter out = new StringWriter();
+        out.write("{\"locations\":");
+        try {
+            out.write(catalogJson());
+        } catch (IOException | RuntimeException e) {
+            // The client falls back to GET /api/locations
+            System.err.println("Error building bootstrap catalog: " + e.getMessage());
+            out.write("null");
+        }
+
+        out.write(",\"session\":");
+        JsonWriter json = ApiJson.newJsonWriter(out);
+        json.beginObject();
+        String username = session != null ? (String) session.getAttribute("username") : null;
+        Integer userId = session != null ? (Integer) session.getAttribute("userId") : null;
+        boolean loggedIn = username != null && userId != null;
+        json.name("loggedIn").value(loggedIn);
+        if (loggedIn) {
+            json.name("username").value(username);
+            json.name("userId").value(userId);
+        }
+        json.endObject();
+        json.flush();
+
+        MapTiles.Pyramid pyramid = MapTiles.getInstance().getPyramid();
+        if (pyramid != null) {
+            out.write(",\"tiles\":");
+            ApiJson.write(out, TileInfo.from(pyramid));
+        }
+
+        out.write("}");
+        return out.toString();
+    }
+
+    /**
+     * The catalog in the GET /api/locations envelope, reserialized only when the catalog changes
+     */
+    private static String catalogJson() throws IOException {
+        LocationCatalog locations = LocationCatalog.getInstance();
+        // Tag first, so it is never newer than the data serialized under it
+        String version = DataVersions.current().catalogTag();
+
+        Serialized cached = catalog;
+        if (cached != null && cached.version.equals(version)) {
+            return cached.json;
+        }
+
+        List<Location> snapshot = locations.getSnapshot().getLocations();
+        StringWriter out = new StringWriter();
+        ApiJson.write(out, ApiResponse.counted(snapshot));
+        String json = out.toString();
+        catalog = new Serialized(version, json);
+        return json;
+    }
+
+    private static final class Serialized {
+        private final String version;
+        private final String json;
+
+        Serialized(String version, String json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
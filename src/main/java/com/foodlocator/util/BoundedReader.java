@@ -0,0 +1,79 @@
+package com.foodlocator.util;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader that fails once more than a fixed number of characters is read
+ * Guards request parsing against oversized or never-ending bodies, e.g.
+ * chunked uploads that carry no Content-Length
+ */
+public class BoundedReader extends FilterReader {
+
+    private final long limit;
+    private long remaining;
+
+    /**
+     * @param in Reader to wrap
+     * @param limit Maximum number of characters that may be read
+     */
+    public BoundedReader(Reader in, long limit) {
+        super(in);
+        this.limit = limit;
+        this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining == 0) {
+            return checkEnd();
+        }
+        int c = in.read();
+        if (c != -1) {
+            remaining--;
+        }
+        return c;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (remaining == 0) {
+            return checkEnd();
+        }
+        int n = in.read(cbuf, off, (int) Math.min(len, remaining));
+        if (n > 0) {
+            remaining -= n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    /**
+     * The limit is used up; only the end of the stream is acceptable now
+     */
+    private int checkEnd() throws IOException {
+        if (in.read() == -1) {
+            return -1;
+        }
+        throw new LimitExceededException(limit);
+    }
+
+    /**
+     * Thrown when the wrapped stream holds more than the allowed number of characters
+     */
+    public static class LimitExceededException extends IOException {
+        public LimitExceededException(long limit) {
+            super("Input exceeds " + limit + " characters");
+        }
+    }
+}
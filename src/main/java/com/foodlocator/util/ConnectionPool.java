@@ -0,0 +1,310 @@
+package com.foodlocator.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded JDBC connection pool used by DatabaseConnection
+ * Connections handed out are proxies whose close() returns the physical
+ * connection to the pool instead of closing it
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private final int maxActive;
+    private final int maxIdle;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final int validationTimeoutSeconds;
+    private final long minEvictableIdleMillis;
+
+    // Caps the number of connections that can be borrowed at the same time
+    private final Semaphore permits;
+    // Idle connections, most recently returned first
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    /**
+     * Create the pool and pre-warm it with initialSize connections
+     * @param url JDBC url
+     * @param username Database user
+     * @param password Database password
+     * @param initialSize Connections opened up front
+     * @param maxActive Maximum connections borrowed at once
+     * @param maxIdle Maximum connections kept idle
+     * @param minIdle Idle connections the evictor keeps open
+     * @param maxWaitMillis How long getConnection() blocks when the pool is exhausted
+     * @param validationTimeoutSeconds Timeout for the validity check on borrow
+     * @param evictionIntervalMillis How often the evictor runs, 0 to disable
+     * @param minEvictableIdleMillis Idle time after which a connection may be evicted
+     */
+    public ConnectionPool(String url, String username, String password,
+                          int initialSize, int maxActive, int maxIdle, int minIdle,
+                          long maxWaitMillis, int validationTimeoutSeconds,
+                          long evictionIntervalMillis, long minEvictableIdleMillis) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxActive = Math.max(1, maxActive);
+        this.maxIdle = Math.max(0, Math.min(maxIdle, this.maxActive));
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxIdle));
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.minEvictableIdleMillis = minEvictableIdleMillis;
+        this.permits = new Semaphore(this.maxActive, true);
+
+        int warm = Math.min(Math.max(initialSize, this.minIdle), this.maxIdle);
+        for (int i = 0; i < warm; i++) {
+            try {
+                idle.offerLast(new PooledConnection(openPhysical()));
+            } catch (SQLException e) {
+                System.err.println("Error pre-warming connection pool: " + e.getMessage());
+                break;
+            }
+        }
+
+        if (evictionIntervalMillis > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "foodlocator-pool-evictor");
+                t.setDaemon(true);
+                return t;
+            });
+            evictor.scheduleWithFixedDelay(this::evict, evictionIntervalMillis,
+                    evictionIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    /**
+     * Borrow a connection, blocking up to maxWait if the pool is exhausted
+     * @return Connection whose close() returns it to the pool
+     * @throws SQLException if the pool is closed, the wait times out or a connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            boolean acquired = maxWaitMillis < 0
+                    ? acquireUninterruptibly()
+                    : permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                throw new SQLException("Timed out after " + maxWaitMillis
+                        + "ms waiting for a database connection (maxActive=" + maxActive + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isValid(pooled.physical)) {
+                    return pooled.lease();
+                }
+                closeQuietly(pooled.physical);
+            }
+            return new PooledConnection(openPhysical()).lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean acquireUninterruptibly() {
+        permits.acquireUninterruptibly();
+        return true;
+    }
+
+    /**
+     * Number of connections currently borrowed
+     * @return Active connection count
+     */
+    public int getActiveCount() {
+        return maxActive - permits.availablePermits();
+    }
+
+    /**
+     * Number of connections sitting idle in the pool
+     * @return Idle connection count
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Maximum number of connections that can be borrowed at once
+     * @return maxActive setting
+     */
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    /**
+     * Close all idle connections and stop the evictor
+     * Borrowed connections are closed when they are returned
+     */
+    public void close() {
+        closed = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    private boolean isValid(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Return a physical connection to the pool, or close it if the pool
+     * is closed, full or the connection is no longer usable
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            Connection conn = pooled.physical;
+            boolean reusable = !closed && !conn.isClosed() && idle.size() < maxIdle;
+            if (reusable && !conn.getAutoCommit()) {
+                // Don't leak an open transaction to the next borrower
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                closeQuietly(conn);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Close connections idle longer than minEvictableIdle while more than
+     * minIdle are open, then top the pool back up to minIdle
+     */
+    private void evict() {
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastUsed >= minEvictableIdleMillis && idle.remove(pooled)) {
+                    closeQuietly(pooled.physical);
+                }
+            }
+            while (!closed && idle.size() < minIdle && idle.size() + getActiveCount() < maxActive) {
+                idle.offerLast(new PooledConnection(openPhysical()));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error refilling connection pool: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool evictor error: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A physical connection plus its idle timestamp
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * Delegates to the physical connection until close() is called once,
+     * after which the connection goes back to the pool
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!returned) {
+                    returned = true;
+                    release(pooled);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return returned || pooled.physical.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "PooledConnection[" + pooled.physical + (returned ? ", returned" : "") + "]";
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -3,29 +3,30 @@ package com.foodlocator.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
 /**
  * Database connection utility class for managing MySQL connections
  * Singleton pattern to ensure single instance across the application
+ * Connections come from a bounded pool configured by the db.pool.* settings
  */
 public class DatabaseConnection {
     
-    private static DatabaseConnection instance;
+    private static volatile DatabaseConnection instance;
     private String url;
     private String username;
     private String password;
     private String driver;
+    private ConnectionPool pool;
     
     /**
      * Private constructor to prevent instantiation
-     * Loads database configuration from properties file
+     * Loads database configuration from properties file and starts the pool
      */
     private DatabaseConnection() {
+        Properties props = new Properties();
         try {
-            Properties props = new Properties();
             InputStream input = getClass().getClassLoader().getResourceAsStream("db.properties");
             
             if (input == null) {
@@ -51,6 +52,29 @@ public class DatabaseConnection {
             System.err.println("Database configuration error: " + e.getMessage());
             e.printStackTrace();
         }
+        
+        this.pool = new ConnectionPool(url, username, password,
+            intProperty(props, "db.pool.initialSize", 5),
+            intProperty(props, "db.pool.maxActive", 10),
+            intProperty(props, "db.pool.maxIdle", 5),
+            intProperty(props, "db.pool.minIdle", 2),
+            intProperty(props, "db.pool.maxWait", 10000),
+            intProperty(props, "db.pool.validationTimeout", 5),
+            intProperty(props, "db.pool.timeBetweenEvictionRunsMillis", 30000),
+            intProperty(props, "db.pool.minEvictableIdleTimeMillis", 60000));
+    }
+    
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
     }
     
     /**
@@ -69,12 +93,28 @@ public class DatabaseConnection {
     }
     
     /**
-     * Get a database connection
+     * Get a database connection from the pool
+     * Closing the returned connection hands it back to the pool
      * @return Connection object
-     * @throws SQLException if connection fails
+     * @throws SQLException if connection fails or the pool stays exhausted for maxWait
      */
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, username, password);
+        return pool.getConnection();
+    }
+    
+    /**
+     * Get the underlying connection pool
+     * @return ConnectionPool instance
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Close every pooled connection, called when the application shuts down
+     */
+    public void shutdown() {
+        pool.close();
     }
     
     /**
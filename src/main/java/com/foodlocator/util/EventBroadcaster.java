@@ -0,0 +1,382 @@
+package com.foodlocator.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.foodlocator.cache.LocationCatalog;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.dto.FieldSelection;
+import com.foodlocator.dto.LocationView;
+import com.foodlocator.dto.ReviewDTO;
+import com.foodlocator.model.Location;
+import com.foodlocator.model.Review;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+/**
+ * Fans live review and rating events out to Server-Sent Events clients
+ * Each event is encoded once and the bytes are shared by every subscriber.
+ * Subscribers write with non-blocking I/O from a bounded queue, so no
+ * thread ever waits on a client; one whose queue fills up is reading
+ * slower than events arrive and is disconnected. EventSource reconnects
+ * with Last-Event-ID and is replayed what it missed from a short history,
+ * or sent a resync event if that is no longer available.
+ */
+public class EventBroadcaster {
+
+    public static final int MAX_SUBSCRIBERS = 1000;
+
+    // Frames a client may fall behind by before it is dropped
+    private static final int QUEUE_CAPACITY = 64;
+    // Events kept for replay after a reconnect
+    private static final int HISTORY_SIZE = 256;
+    // Keeps idle connections open through proxies and finds dead clients
+    private static final long HEARTBEAT_SECONDS = 25;
+
+    private static final byte[] PREAMBLE = "retry: 5000\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final FieldSelection RATING_FIELDS =
+        FieldSelection.parse("rating,reviewCount", LocationView.FIELDS);
+
+    private static final EventBroadcaster instance = new EventBroadcaster();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat;
+
+    // Guarded by this
+    private final ArrayDeque<Event> history = new ArrayDeque<>();
+    private long lastEventId;
+
+    private EventBroadcaster() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get singleton instance of EventBroadcaster
+     * @return EventBroadcaster instance
+     */
+    public static EventBroadcaster getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start streaming events to an async request
+     * The response's content type and headers must already be set
+     * @param context Async context of the request, with no timeout
+     * @param locationIDs Locations to send events for, or null for all
+     * @param lastSeenId Last-Event-ID header of a reconnecting client, or null
+     * @return false if there are already MAX_SUBSCRIBERS clients
+     * @throws IOException if the response can't be written
+     */
+    public boolean subscribe(AsyncContext context, Set<Integer> locationIDs, String lastSeenId)
+            throws IOException {
+        Subscriber subscriber = new Subscriber(context, locationIDs);
+        context.addListener(subscriber);
+
+        synchronized (this) {
+            // Checked under the lock that adds, so concurrent connects can't overshoot
+            if (subscribers.size() >= MAX_SUBSCRIBERS) {
+                return false;
+            }
+            subscriber.offer(PREAMBLE);
+            for (byte[] frame : replay(subscriber, lastSeenId)) {
+                subscriber.offer(frame);
+            }
+            subscribers.add(subscriber);
+        }
+
+        subscriber.start(context.getResponse().getOutputStream());
+        return true;
+    }
+
+    /**
+     * Publish a newly created review
+     * Resolving the author's name may borrow a connection, so call this
+     * after the write's own connection is closed
+     * @param review Committed review
+     */
+    public void reviewCreated(Review review) {
+        publish("review", review.getLocationID(), ReviewDTO.fromAll(Collections.singletonList(review)).get(0));
+    }
+
+    /**
+     * Publish a location's current rating and review count from the catalog
+     * @param locationID Location whose rating aggregate changed
+     */
+    public void ratingChanged(int locationID) {
+        Location location;
+        try {
+            location = LocationCatalog.getInstance().getSnapshot().getLocation(locationID);
+        } catch (IllegalStateException e) {
+            // Catalog not loaded; must not fail the write that caused the event
+            return;
+        }
+        if (location != null) {
+            publish("rating", locationID, LocationView.of(location, RATING_FIELDS));
+        }
+    }
+
+    /**
+     * Disconnect every client and stop the heartbeat
+     */
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    /**
+     * Encode an event once, record it and queue it for every interested subscriber
+     * Failures are logged; they must not fail the write that caused the event
+     */
+    private void publish(String type, int locationID, Object data) {
+        byte[] json;
+        try {
+            json = ApiJson.toBytes(data, StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error encoding " + type + " event: " + e.getMessage());
+            return;
+        }
+
+        List<Subscriber> offered = new ArrayList<>();
+        List<Subscriber> slow = new ArrayList<>();
+        synchronized (this) {
+            // Under the lock, so every subscriber sees events in id order
+            Event event = new Event(++lastEventId, locationID, frame(lastEventId, type, json));
+            history.addLast(event);
+            if (history.size() > HISTORY_SIZE) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.wants(event)) {
+                    continue;
+                }
+                if (subscriber.offer(event.frame)) {
+                    offered.add(subscriber);
+                } else {
+                    slow.add(subscriber);
+                }
+            }
+        }
+
+        for (Subscriber subscriber : slow) {
+            System.err.println("Disconnecting slow event stream client");
+            subscriber.close();
+        }
+        for (Subscriber subscriber : offered) {
+            subscriber.drain();
+        }
+    }
+
+    /**
+     * Frames a reconnecting client missed; caller holds the lock
+     * @return Missed events, a resync event if they are gone, or nothing for a new client
+     */
+    private List<byte[]> replay(Subscriber subscriber, String lastSeenId) {
+        if (lastSeenId == null || lastSeenId.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long seen;
+        try {
+            seen = Long.parseLong(lastSeenId.trim());
+        } catch (NumberFormatException e) {
+            return Collections.singletonList(resync());
+        }
+
+        long oldest = history.isEmpty() ? lastEventId + 1 : history.peekFirst().id;
+        // Ids from before a restart, or older than the history
+        if (seen > lastEventId || seen < oldest - 1) {
+            return Collections.singletonList(resync());
+        }
+
+        List<byte[]> missed = new ArrayList<>();
+        for (Event event : history) {
+            if (event.id > seen && subscriber.wants(event)) {
+                missed.add(event.frame);
+            }
+        }
+        // The preamble takes one slot
+        return missed.size() < QUEUE_CAPACITY ? missed : Collections.singletonList(resync());
+    }
+
+    /**
+     * Tells the client to reload; carries the current id so its next
+     * reconnect picks up from here; caller holds the lock
+     */
+    private byte[] resync() {
+        return frame(lastEventId, "resync", "{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(HEARTBEAT)) {
+                subscriber.drain();
+            } else {
+                subscriber.close();
+            }
+        }
+    }
+
+    private static byte[] frame(long id, String type, byte[] json) {
+        byte[] head = ("id: " + id + "\nevent: " + type + "\ndata: ").getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[head.length + json.length + 2];
+        System.arraycopy(head, 0, frame, 0, head.length);
+        System.arraycopy(json, 0, frame, head.length, json.length);
+        frame[frame.length - 2] = '\n';
+        frame[frame.length - 1] = '\n';
+        return frame;
+    }
+
+    private static final class Event {
+        private final long id;
+        private final int locationID;
+        private final byte[] frame;
+
+        Event(long id, int locationID, byte[] frame) {
+            this.id = id;
+            this.locationID = locationID;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * One connected client
+     * Written from whichever thread publishes and from the container's
+     * onWritePossible callback, so every write happens under its monitor
+     */
+    private final class Subscriber implements WriteListener, AsyncListener {
+        private final AsyncContext context;
+        private final Set<Integer> locationIDs;
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+
+        private ServletOutputStream out;
+        private boolean unflushed;
+        private boolean closed;
+
+        Subscriber(AsyncContext context, Set<Integer> locationIDs) {
+            this.context = context;
+            this.locationIDs = locationIDs;
+        }
+
+        boolean wants(Event event) {
+            return locationIDs == null || locationIDs.contains(event.locationID);
+        }
+
+        /**
+         * Queue a frame without writing it
+         * @return false if the queue is full
+         */
+        synchronized boolean offer(byte[] frame) {
+            if (closed) {
+                return true;
+            }
+            if (queue.size() >= QUEUE_CAPACITY) {
+                return false;
+            }
+            queue.addLast(frame);
+            return true;
+        }
+
+        /**
+         * Switch the stream to non-blocking mode; the container calls
+         * onWritePossible once it can be written
+         */
+        synchronized void start(ServletOutputStream stream) {
+            out = stream;
+            out.setWriteListener(this);
+        }
+
+        /**
+         * Write queued frames for as long as the socket takes them
+         * Stops when it would block; the container calls onWritePossible
+         * once the pending bytes are out
+         */
+        synchronized void drain() {
+            if (closed || out == null) {
+                return;
+            }
+            try {
+                while (out.isReady()) {
+                    byte[] frame = queue.pollFirst();
+                    if (frame != null) {
+                        out.write(frame);
+                        unflushed = true;
+                    } else if (unflushed) {
+                        out.flush();
+                        unflushed = false;
+                    } else {
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+            }
+            subscribers.remove(this);
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Not restarted
+        }
+    }
+}
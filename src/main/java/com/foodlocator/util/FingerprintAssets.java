@@ -0,0 +1,402 @@
+package com.foodlocator.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time tool that writes minified, content-hashed copies of static assets
+ * app.js becomes app.3f09c1a2b7.js, and every JSP, CSS and JS reference to it
+ * is rewritten. Hashed names never change content, so StaticCacheFilter can
+ * let browsers cache them for a year. Run by the pom during prepare-package,
+ * before PrecompressAssets; the output directory is added to the WAR and its
+ * rewritten JSPs take precedence over the originals.
+ * Usage: java com.foodlocator.util.FingerprintAssets <webappDir> <outputDir>
+ */
+public class FingerprintAssets {
+
+    private static final String[] IMAGE_EXTENSIONS = {".png", ".jpg", ".jpeg", ".gif", ".svg", ".ico"};
+    private static final int HASH_LENGTH = 10;
+    private static final Pattern FINGERPRINTED = Pattern.compile(".*\\.[0-9a-f]{" + HASH_LENGTH + "}\\.[A-Za-z0-9]+$");
+
+    /**
+     * Whether a request path names a fingerprinted asset
+     * @param path Path within the webapp
+     * @return true if the file name carries a content hash
+     */
+    public static boolean isFingerprinted(String path) {
+        return FINGERPRINTED.matcher(path).matches();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: FingerprintAssets <webappDir> <outputDir>");
+            System.exit(1);
+        }
+
+        Path source = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        clean(output);
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk
+                .filter(Files::isRegularFile)
+                .filter(p -> !p.startsWith(source.resolve("WEB-INF")))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+
+        // Original path -> hashed path, both relative to the webapp root
+        Map<String, String> renamed = new LinkedHashMap<>();
+
+        // Images first, so the CSS that references them hashes the new names
+        for (Path file : files) {
+            if (hasExtension(file, IMAGE_EXTENSIONS)) {
+                byte[] content = Files.readAllBytes(file);
+                renamed.put(relative(source, file), write(source, output, file, content));
+            }
+        }
+        for (Path file : files) {
+            if (hasExtension(file, ".css")) {
+                String css = rewrite(read(file), renamed);
+                renamed.put(relative(source, file), write(source, output, file, bytes(minifyCss(css))));
+            }
+        }
+        for (Path file : files) {
+            if (hasExtension(file, ".js")) {
+                String js = rewrite(read(file), renamed);
+                renamed.put(relative(source, file), write(source, output, file, bytes(minifyJs(js))));
+            }
+        }
+
+        int pages = 0;
+        for (Path file : files) {
+            if (hasExtension(file, ".jsp", ".html")) {
+                String original = read(file);
+                String page = rewrite(original, renamed);
+                if (!page.equals(original)) {
+                    Path target = output.resolve(relative(source, file));
+                    Files.createDirectories(target.getParent());
+                    Files.write(target, bytes(page));
+                    pages++;
+                }
+            }
+        }
+
+        System.out.println("Fingerprinted " + renamed.size() + " static assets and rewrote "
+            + pages + " pages into " + output);
+    }
+
+    /**
+     * Replace references to original asset paths with the hashed ones
+     * Only absolute references (preceded by '/', e.g. after the context path)
+     * ending at a quote, ')', '?' or '#' are rewritten
+     */
+    static String rewrite(String text, Map<String, String> renamed) {
+        for (Map.Entry<String, String> entry : renamed.entrySet()) {
+            Pattern reference = Pattern.compile("(?<=/)" + Pattern.quote(entry.getKey()) + "(?=[\"')?#])");
+            text = reference.matcher(text).replaceAll(Matcher.quoteReplacement(entry.getValue()));
+        }
+        return text;
+    }
+
+    /**
+     * Strip comments and collapse whitespace; strings are copied untouched
+     * Whitespace before ':' is kept since it matters in selectors (a :hover)
+     */
+    static String minifyCss(String css) {
+        StringBuilder out = new StringBuilder(css.length());
+        int i = 0;
+        int n = css.length();
+        while (i < n) {
+            char c = css.charAt(i);
+            if (c == '/' && i + 1 < n && css.charAt(i + 1) == '*') {
+                int end = css.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (c == '"' || c == '\'') {
+                i = copyString(css, i, out);
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(css.charAt(i))) {
+                    i++;
+                }
+                char next = i < n ? css.charAt(i) : '}';
+                char prev = out.length() > 0 ? out.charAt(out.length() - 1) : '{';
+                if ("{};,:>".indexOf(prev) < 0 && "{};,>)".indexOf(next) < 0) {
+                    out.append(' ');
+                }
+            } else if (c == '}' && out.length() > 0 && out.charAt(out.length() - 1) == ';') {
+                out.setCharAt(out.length() - 1, '}');
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Strip comments, indentation and blank lines
+     * Line breaks are kept so automatic semicolon insertion is unaffected.
+     * Strings, template literals and regex literals are copied untouched.
+     */
+    static String minifyJs(String js) {
+        StringBuilder out = new StringBuilder(js.length());
+        int end = minifyJs(js, 0, false, out);
+        if (end < js.length()) {
+            out.append(js, end, js.length());
+        }
+        return out.toString().trim() + "\n";
+    }
+
+    /**
+     * Minify code from start until end of input, or until the '}' closing a
+     * template literal substitution when inTemplate is set
+     * @return Index just past the last character consumed
+     */
+    private static int minifyJs(String js, int start, boolean inTemplate, StringBuilder out) {
+        int depth = 0;
+        int i = start;
+        int n = js.length();
+        while (i < n) {
+            char c = js.charAt(i);
+            char next = i + 1 < n ? js.charAt(i + 1) : 0;
+            if (c == '/' && next == '/') {
+                while (i < n && js.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && next == '*') {
+                int close = js.indexOf("*/", i + 2);
+                String comment = js.substring(i, close < 0 ? n : close + 2);
+                i += comment.length();
+                appendSpace(out, comment.indexOf('\n') >= 0);
+            } else if (c == '/' && startsRegex(out)) {
+                i = copyRegex(js, i, out);
+            } else if (c == '"' || c == '\'') {
+                i = copyString(js, i, out);
+            } else if (c == '`') {
+                i = copyTemplate(js, i, out);
+            } else if (Character.isWhitespace(c)) {
+                boolean newline = false;
+                while (i < n && Character.isWhitespace(js.charAt(i))) {
+                    newline |= js.charAt(i) == '\n';
+                    i++;
+                }
+                appendSpace(out, newline);
+            } else {
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    if (inTemplate && depth == 0) {
+                        return i;
+                    }
+                    depth--;
+                }
+                out.append(c);
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Collapse a whitespace run, preferring a line break if it contained one
+     */
+    private static void appendSpace(StringBuilder out, boolean newline) {
+        int last = out.length() - 1;
+        if (last < 0) {
+            return;
+        }
+        char prev = out.charAt(last);
+        if (prev == '\n') {
+            return;
+        }
+        if (prev == ' ') {
+            if (newline) {
+                out.setCharAt(last, '\n');
+            }
+            return;
+        }
+        out.append(newline ? '\n' : ' ');
+    }
+
+    /**
+     * Whether a '/' here starts a regex literal rather than a division,
+     * judged by the last significant character written
+     */
+    private static boolean startsRegex(StringBuilder out) {
+        int i = out.length() - 1;
+        while (i >= 0 && Character.isWhitespace(out.charAt(i))) {
+            i--;
+        }
+        if (i < 0) {
+            return true;
+        }
+        char prev = out.charAt(i);
+        if (Character.isJavaIdentifierPart(prev)) {
+            int startOfWord = i;
+            while (startOfWord > 0 && Character.isJavaIdentifierPart(out.charAt(startOfWord - 1))) {
+                startOfWord--;
+            }
+            String word = out.substring(startOfWord, i + 1);
+            return word.matches("return|typeof|case|do|else|in|of|new|delete|void|throw|instanceof|yield|await");
+        }
+        return "(,=:[!&|?{};+-*%<>~^".indexOf(prev) >= 0;
+    }
+
+    private static int copyString(String text, int start, StringBuilder out) {
+        char quote = text.charAt(start);
+        int i = start + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else {
+                i++;
+                if (c == quote || c == '\n') {
+                    break;
+                }
+            }
+        }
+        i = Math.min(i, text.length());
+        out.append(text, start, i);
+        return i;
+    }
+
+    private static int copyRegex(String js, int start, StringBuilder out) {
+        boolean inClass = false;
+        int i = start + 1;
+        while (i < js.length()) {
+            char c = js.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            i++;
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if ((c == '/' && !inClass) || c == '\n') {
+                break;
+            }
+        }
+        i = Math.min(i, js.length());
+        out.append(js, start, i);
+        return i;
+    }
+
+    /**
+     * Copy a template literal, minifying the code inside ${...} substitutions
+     */
+    private static int copyTemplate(String js, int start, StringBuilder out) {
+        out.append('`');
+        int i = start + 1;
+        int n = js.length();
+        while (i < n) {
+            char c = js.charAt(i);
+            if (c == '\\') {
+                out.append(js, i, Math.min(i + 2, n));
+                i += 2;
+            } else if (c == '$' && i + 1 < n && js.charAt(i + 1) == '{') {
+                out.append("${");
+                i = minifyJs(js, i + 2, true, out);
+                if (i < n) {
+                    out.append('}');
+                    i++;
+                }
+            } else {
+                out.append(c);
+                i++;
+                if (c == '`') {
+                    break;
+                }
+            }
+        }
+        return Math.min(i, n);
+    }
+
+    /**
+     * Remove the previous build's output, so stale hashed names don't pile up
+     */
+    private static void clean(Path output) throws IOException {
+        if (!Files.exists(output)) {
+            return;
+        }
+        List<Path> stale;
+        try (Stream<Path> walk = Files.walk(output)) {
+            stale = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : stale) {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Write content under its hashed name and return that name
+     */
+    private static String write(Path source, Path output, Path file, byte[] content) throws IOException {
+        String relative = relative(source, file);
+        int dot = relative.lastIndexOf('.');
+        String hashed = relative.substring(0, dot) + "." + hash(content) + relative.substring(dot);
+
+        Path target = output.resolve(hashed);
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+        return hashed;
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String relative(Path source, Path file) {
+        List<String> parts = new ArrayList<>();
+        for (Path part : source.relativize(file)) {
+            parts.add(part.toString());
+        }
+        return String.join("/", parts);
+    }
+
+    private static boolean hasExtension(Path path, String... extensions) {
+        String name = path.getFileName().toString().toLowerCase();
+        for (String extension : extensions) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
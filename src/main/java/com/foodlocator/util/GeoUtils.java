@@ -0,0 +1,54 @@
+package com.foodlocator.util;
+
+/**
+ * Geographic helper functions
+ * Distances are in miles to match what the frontend displays
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_MILES = 3959.0;
+    // Miles spanned by one degree of latitude
+    public static final double MILES_PER_DEGREE_LAT = 69.0;
+
+    private GeoUtils() {}
+
+    /**
+     * Great-circle distance between two points (haversine formula)
+     * @return Distance in miles
+     */
+    public static double distanceMiles(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(dLng / 2) * Math.sin(dLng / 2);
+
+        return EARTH_RADIUS_MILES * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Miles spanned by one degree of longitude at a given latitude
+     * @param lat Latitude in degrees
+     * @return Miles per degree of longitude
+     */
+    public static double milesPerDegreeLng(double lat) {
+        return MILES_PER_DEGREE_LAT * Math.cos(Math.toRadians(lat));
+    }
+
+    /**
+     * Round a distance to two decimals, the precision the UI shows
+     * @param miles Distance in miles
+     * @return Rounded distance
+     */
+    public static double roundMiles(double miles) {
+        return Math.round(miles * 100) / 100.0;
+    }
+
+    /**
+     * Check that a coordinate pair is a valid latitude/longitude
+     */
+    public static boolean isValidCoordinate(double lat, double lng) {
+        return lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180;
+    }
+}
@@ -0,0 +1,70 @@
+package com.foodlocator.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GET helpers for the JSON API
+ */
+public final class HttpCaching {
+
+    // Browsers may store API responses but must revalidate them on every use
+    public static final String API_CACHE_CONTROL = "no-cache";
+    // For content whose URL changes whenever the content does (fingerprints, versions)
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private HttpCaching() {}
+
+    /**
+     * Set ETag and Cache-Control, and answer 304 if the client already has this version
+     * Must be called before any data is read, so the tag is never newer than the body
+     * @param request Incoming request
+     * @param response Outgoing response
+     * @param etag Current ETag of the resource
+     * @return true if a 304 was sent and the caller should stop
+     */
+    public static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", API_CACHE_CONTROL);
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drop the ETag and Cache-Control set by notModified before sending an error
+     * Otherwise a client could revalidate the error body under the data's tag.
+     * Clears all headers and buffered output, keeping the content type; does
+     * nothing once the response is committed
+     * @param response Outgoing response
+     */
+    public static void discardValidators(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            String contentType = response.getContentType();
+            response.reset();
+            response.setContentType(contentType);
+        }
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header against a tag
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,54 @@
+package com.foodlocator.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parser for the ids= parameter of batch endpoints
+ */
+public final class IdList {
+
+    // Keeps IN (...) lists and response sizes reasonable
+    public static final int MAX_IDS = 100;
+
+    private IdList() {}
+
+    /**
+     * Parse a comma-separated list of IDs, dropping duplicates but keeping order
+     * @param param Parameter value, e.g. "1,2,3"
+     * @return IDs in request order
+     * @throws IllegalArgumentException with a client-safe message if the list is
+     *         empty, too long or holds something other than positive integers
+     */
+    public static List<Integer> parse(String param) {
+        if (param == null || param.trim().isEmpty()) {
+            throw new IllegalArgumentException("ids parameter is required");
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String part : param.split(",")) {
+            String value = part.trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            int id;
+            try {
+                id = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid id: " + value);
+            }
+            if (id <= 0) {
+                throw new IllegalArgumentException("Invalid id: " + value);
+            }
+            ids.add(id);
+            if (ids.size() > MAX_IDS) {
+                throw new IllegalArgumentException("At most " + MAX_IDS + " ids per request");
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("ids parameter is required");
+        }
+        return new ArrayList<>(ids);
+    }
+}
@@ -0,0 +1,81 @@
+package com.foodlocator.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build-time tool that writes a .gz copy of every compressible static asset
+ * Run by the pom during prepare-package; the output directory is added to
+ * the WAR so PrecompressedAssetFilter can serve the copies without
+ * compressing anything at request time
+ * Usage: java com.foodlocator.util.PrecompressAssets <webappDir> <outputDir>
+ */
+public class PrecompressAssets {
+
+    private static final String[] EXTENSIONS = {".js", ".css", ".html", ".svg", ".json"};
+    // Below this the gzip header outweighs the savings
+    private static final long MIN_SIZE = 1024;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PrecompressAssets <webappDir> <outputDir>");
+            System.exit(1);
+        }
+
+        Path source = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        List<Path> assets;
+        try (Stream<Path> files = Files.walk(source)) {
+            assets = files
+                .filter(Files::isRegularFile)
+                .filter(PrecompressAssets::isCompressible)
+                .filter(p -> !p.startsWith(source.resolve("WEB-INF")))
+                .collect(Collectors.toList());
+        }
+
+        int written = 0;
+        for (Path asset : assets) {
+            if (Files.size(asset) < MIN_SIZE) {
+                continue;
+            }
+            Path target = output.resolve(source.relativize(asset).toString() + ".gz");
+            Files.createDirectories(target.getParent());
+            gzip(asset, target);
+
+            if (Files.size(target) >= Files.size(asset)) {
+                Files.delete(target);
+            } else {
+                written++;
+            }
+        }
+
+        System.out.println("Precompressed " + written + " static assets into " + output);
+    }
+
+    private static boolean isCompressible(Path path) {
+        String name = path.getFileName().toString();
+        for (String extension : EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void gzip(Path source, Path target) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target)) {
+                { def.setLevel(Deflater.BEST_COMPRESSION); }
+            }) {
+            Files.copy(source, out);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.foodlocator.util;
+
+import com.foodlocator.dao.RatingAggregateDAO;
+
+/**
+ * Command line tool that backfills the location_ratings table from reviews
+ * Usage: java -cp foodlocator.jar com.foodlocator.util.RebuildRatingAggregates
+ */
+public class RebuildRatingAggregates {
+
+    public static void main(String[] args) {
+        int rebuilt = new RatingAggregateDAO().rebuildAll();
+        DatabaseConnection.getInstance().shutdown();
+
+        if (rebuilt < 0) {
+            System.err.println("Rating aggregate rebuild failed");
+            System.exit(1);
+        }
+        System.out.println("Rebuilt rating aggregates for " + rebuilt + " locations");
+    }
+}
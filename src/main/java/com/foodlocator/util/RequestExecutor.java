@@ -0,0 +1,161 @@
+package com.foodlocator.util;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.foodlocator.dto.ApiError;
+import com.foodlocator.dto.ApiJson;
+import com.foodlocator.filter.CompressionFilter;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Runs API request handlers that block on the database off the container's threads
+ * The request goes async and its handler runs on a fixed pool with one
+ * thread per pooled connection, so at most that many handlers run at
+ * once. Others wait in the pool's queue without holding a container
+ * thread, up to MAX_WAITING of them for at most MAX_WAIT_MILLIS, after
+ * which they get a 503. A slow database therefore backs requests up here,
+ * where they are cheap, instead of exhausting Tomcat's worker pool.
+ */
+public class RequestExecutor {
+
+    // Requests admitted but not yet finished, running ones included
+    public static final int MAX_WAITING = 2000;
+    // Longest a request waits in the queue before a thread picks it up
+    public static final long MAX_WAIT_MILLIS = 10000;
+
+    private static volatile RequestExecutor instance;
+
+    private final ExecutorService executor;
+    private final Semaphore admitted = new Semaphore(MAX_WAITING);
+
+    /**
+     * Blocking part of a request, run on the executor
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException;
+    }
+
+    private RequestExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        // Unbounded here since admitted already caps what can be queued
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "api-request-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Get singleton instance of RequestExecutor, sized to the connection pool
+     * @return RequestExecutor instance
+     */
+    public static RequestExecutor getInstance() {
+        if (instance == null) {
+            synchronized (RequestExecutor.class) {
+                if (instance == null) {
+                    instance = new RequestExecutor(DatabaseConnection.getInstance().getPool().getMaxActive());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Put the request in async mode and run the handler on the executor
+     * The response is completed once the handler returns; the servlet
+     * must declare asyncSupported
+     * @param request Incoming request
+     * @param response Outgoing response
+     * @param handler Writes the response
+     * @throws IOException if a 503 can't be written
+     */
+    public void submit(HttpServletRequest request, HttpServletResponse response, Handler handler)
+            throws IOException {
+        if (!admitted.tryAcquire()) {
+            sendBusy(response);
+            return;
+        }
+
+        // With the filters' wrappers, so CompressionFilter still applies
+        AsyncContext context = request.startAsync(request, response);
+        // Bounded by MAX_WAIT_MILLIS and the pool's own timeouts instead
+        context.setTimeout(0);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS);
+        try {
+            executor.execute(() -> run(context, handler, deadline));
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            sendBusy((HttpServletResponse) context.getResponse());
+            complete(context);
+        }
+    }
+
+    /**
+     * Stop taking work; handlers already running finish
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(AsyncContext context, Handler handler, long deadline) {
+        HttpServletRequest request = (HttpServletRequest) context.getRequest();
+        HttpServletResponse response = (HttpServletResponse) context.getResponse();
+        try {
+            if (System.nanoTime() - deadline > 0) {
+                // Queued too long; the client has likely given up
+                sendBusy(response);
+                return;
+            }
+            handler.handle(request, response);
+        } catch (Exception e) {
+            System.err.println("Error handling " + request.getRequestURI() + ": " + e.getMessage());
+            e.printStackTrace();
+            if (!response.isCommitted()) {
+                sendError(response, "Internal server error", 500);
+            }
+        } finally {
+            admitted.release();
+            complete(context);
+        }
+    }
+
+    private static void complete(AsyncContext context) {
+        try {
+            // The filter chain returned long ago, so the gzip stream is finished here
+            CompressionFilter.finish(context.getResponse());
+        } catch (IOException e) {
+            System.err.println("Error finishing response: " + e.getMessage());
+        } finally {
+            context.complete();
+        }
+    }
+
+    private static void sendBusy(HttpServletResponse response) {
+        response.setHeader("Retry-After", "1");
+        sendError(response, "Server busy, please retry", 503);
+    }
+
+    private static void sendError(HttpServletResponse response, String message, int statusCode) {
+        try {
+            response.resetBuffer();
+            response.setStatus(statusCode);
+            response.setContentType("application/json");
+            ApiJson.write(response.getWriter(), new ApiError(message));
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Error sending " + statusCode + ": " + e.getMessage());
+        }
+    }
+}
@@ -9,7 +9,16 @@ const CONFIG = {
         east: -118.2712,
         west: -118.2973
     },
-    API_BASE_URL: '/foodlocator/api'
+    API_BASE_URL: '/foodlocator/api',
+    TILE_BASE_URL: '/foodlocator/tiles',
+    // Above this many places the map asks the server for clustered markers
+    CLUSTER_THRESHOLD: 200,
+    // Target on-screen size (px) of one cluster cell
+    CLUSTER_CELL_PX: 32,
+    // Characters of review text shown on the location modal's review cards
+    REVIEW_PREVIEW_LENGTH: 200,
+    // Wait before reopening the live update stream if the server refused it
+    LIVE_RETRY_MS: 30000
 };
 
 // Add this variable at the top of app.js with other declarations
@@ -23,6 +32,10 @@ let currentReviews = [];
 let currentPage = 1;
 let totalReviews = 0;
 let totalPages = 1;
+let mapTiles = null;
+let mapTileLayer = null;
+let mapTileZoom = -1;
+let liveEvents = null;
 
 console.log('mapContainer:', mapContainer);
 
@@ -31,12 +44,75 @@ document.addEventListener('DOMContentLoaded', () => {
     initStaticMap();
     loadPlaces();
     setupEventListeners();
+    subscribeLiveUpdates();
 });
 
 // Map initialization
 function initStaticMap() {
     mapContainer = document.getElementById('map');
     if (!mapContainer) console.error('Map container not found');
+    else loadMapTiles();
+}
+
+// Draw the campus map from server tiles at the resolution the container needs,
+// falling back to the full image if tiles are unavailable
+async function loadMapTiles() {
+    try {
+        if (window.BOOTSTRAP && window.BOOTSTRAP.tiles) {
+            mapTiles = window.BOOTSTRAP.tiles;
+        } else {
+            const response = await fetch(CONFIG.TILE_BASE_URL, { credentials: 'include' });
+            const result = await response.json();
+            if (!result.success) throw new Error(result.error);
+            mapTiles = result.data;
+        }
+        
+        const viewport = document.createElement('div');
+        viewport.className = 'map-tiles';
+        mapTileLayer = document.createElement('div');
+        mapTileLayer.className = 'map-tiles-layer';
+        viewport.appendChild(mapTileLayer);
+        mapContainer.prepend(viewport);
+        renderMapTiles();
+        window.addEventListener('resize', renderMapTiles);
+    } catch (error) {
+        console.error('Error loading map tiles:', error);
+        mapContainer.classList.add('no-tiles');
+    }
+}
+
+// Size the tile layer like background-size: cover and load the smallest
+// zoom level that is at least as sharp as the screen
+function renderMapTiles() {
+    const t = mapTiles;
+    const scale = Math.max(mapContainer.offsetWidth / t.width, mapContainer.offsetHeight / t.height);
+    const width = t.width * scale;
+    const height = t.height * scale;
+    mapTileLayer.style.width = `${width}px`;
+    mapTileLayer.style.height = `${height}px`;
+    mapTileLayer.style.left = `${(mapContainer.offsetWidth - width) / 2}px`;
+    mapTileLayer.style.top = `${(mapContainer.offsetHeight - height) / 2}px`;
+    
+    const needed = width * (window.devicePixelRatio || 1);
+    let zoom = 0;
+    while (zoom < t.maxZoom && Math.ceil(t.width / Math.pow(2, t.maxZoom - zoom)) < needed) zoom++;
+    if (zoom === mapTileZoom) return;
+    mapTileZoom = zoom;
+    
+    const levelWidth = Math.ceil(t.width / Math.pow(2, t.maxZoom - zoom));
+    const levelHeight = Math.ceil(t.height / Math.pow(2, t.maxZoom - zoom));
+    const tiles = [];
+    for (let y = 0; y * t.tileSize < levelHeight; y++) {
+        for (let x = 0; x * t.tileSize < levelWidth; x++) {
+            const left = x * t.tileSize / levelWidth * 100;
+            const top = y * t.tileSize / levelHeight * 100;
+            const w = Math.min(t.tileSize, levelWidth - x * t.tileSize) / levelWidth * 100;
+            const h = Math.min(t.tileSize, levelHeight - y * t.tileSize) / levelHeight * 100;
+            tiles.push(`<img src="${CONFIG.TILE_BASE_URL}/${t.version}/${zoom}/${x}/${y}.png" alt="" ` +
+                `style="left:${left}%;top:${top}%;width:${w}%;height:${h}%">`);
+        }
+    }
+    mapTileLayer.innerHTML = tiles.join('');
 }
 
 function latLngToPixel(lat, lng) {
@@ -47,12 +123,17 @@ function latLngToPixel(lat, lng) {
     return { x, y };
 }
 
-// Load places from API
+// Load places from the page's bootstrap data on first load, from the API after that
 async function loadPlaces() {
     try {
         showLoading(true);
-        const response = await fetch(`${CONFIG.API_BASE_URL}/locations`, { credentials: 'include' });
-        const data = await response.json();
+        let data = window.BOOTSTRAP && window.BOOTSTRAP.locations;
+        if (data) {
+            window.BOOTSTRAP.locations = null;
+        } else {
+            const response = await fetch(`${CONFIG.API_BASE_URL}/locations`, { credentials: 'include' });
+            data = await response.json();
+        }
         
         if (data.success && Array.isArray(data.data)) {
             allPlaces = data.data.map(loc => ({
@@ -64,7 +145,7 @@ async function loadPlaces() {
                 description: loc.description || loc.category
             }));
             displayPlaces(allPlaces);
-            addPlaceMarkers(allPlaces);
+            renderMarkers();
         } else {
             showError('Failed to load locations');
         }
@@ -102,7 +183,7 @@ function redrawAllMarkers() {
     clearPlaceMarkers();
     
     // Re-add place markers with new coordinate system
-    addPlaceMarkers(allPlaces);
+    renderMarkers();
     
     // Re-add user marker if it exists
     if (currentUserPosition) {
@@ -143,7 +224,10 @@ function sortPlaces(sortBy) {
     const sorted = [...allPlaces];
     const userLocation = CONFIG.USC_CENTER; // [34.0224, -118.2851]
     
-    if (sortBy === 'distance') {
+    if (sortBy === 'distance' && sorted.every(p => p.distance !== undefined)) {
+        // Sort by the distances computed for the user's position
+        sorted.sort((a, b) => a.distance - b.distance);
+    } else if (sortBy === 'distance') {
         // Sort by distance from USC Center
         sorted.sort((a, b) => {
             const distA = Math.sqrt(Math.pow(a.lat - userLocation[0], 2) + Math.pow(a.lng - userLocation[1], 2));
@@ -186,6 +270,82 @@ function addPlaceMarkers(places) {
     });
 }
 
+// Draw one marker per place for small catalogs, server-side clusters otherwise
+function renderMarkers() {
+    if (allPlaces.length > CONFIG.CLUSTER_THRESHOLD) {
+        addClusterMarkers();
+    } else {
+        addPlaceMarkers(allPlaces);
+    }
+}
+
+// Zoom level whose cluster cells are about CLUSTER_CELL_PX wide on this map
+function currentClusterZoom() {
+    const lngSpan = CONFIG.MAP_BOUNDS.east - CONFIG.MAP_BOUNDS.west;
+    const cellDegrees = lngSpan * CONFIG.CLUSTER_CELL_PX / Math.max(mapContainer.offsetWidth, 1);
+    return Math.max(0, Math.min(20, Math.ceil(Math.log2(360 / cellDegrees)) - 2));
+}
+
+async function addClusterMarkers() {
+    const b = CONFIG.MAP_BOUNDS;
+    const zoom = currentClusterZoom();
+    
+    try {
+        const response = await fetch(
+            `${CONFIG.API_BASE_URL}/clusters?north=${b.north}&south=${b.south}&east=${b.east}&west=${b.west}&zoom=${zoom}`,
+            { credentials: 'include' }
+        );
+        const result = await response.json();
+        if (!result.success) throw new Error(result.error);
+        
+        clearPlaceMarkers();
+        result.data.forEach(cluster => {
+            const coords = latLngToPixel(cluster.lat, cluster.lng);
+            const marker = document.createElement('div');
+            marker.style.left = `${coords.x}px`;
+            marker.style.top = `${coords.y}px`;
+            
+            if (cluster.count === 1) {
+                const place = allPlaces.find(p => p.id == cluster.locationID);
+                marker.className = 'map-marker';
+                marker.title = place ? place.name : '';
+                marker.addEventListener('click', () => place && showLocationModal(place));
+            } else {
+                marker.className = 'map-marker-cluster';
+                marker.textContent = cluster.count;
+                marker.title = `${cluster.count} places, best rated ${cluster.bestRating.toFixed(1)}`;
+                marker.addEventListener('click', () => showClusterPlaces(cluster, result.zoom));
+            }
+            mapContainer.appendChild(marker);
+            locationMarkers.push(marker);
+        });
+    } catch (error) {
+        console.error('Error loading marker clusters:', error);
+        addPlaceMarkers(allPlaces);
+    }
+}
+
+// List the places of a clicked cluster in the sidebar
+async function showClusterPlaces(cluster, zoom) {
+    const cell = 360 / Math.pow(2, zoom + 2);
+    const south = Math.floor((cluster.lat + 90) / cell) * cell - 90;
+    const west = Math.floor((cluster.lng + 180) / cell) * cell - 180;
+    
+    try {
+        const response = await fetch(
+            `${CONFIG.API_BASE_URL}/locations/bbox?south=${south}&west=${west}&north=${south + cell}&east=${west + cell}`,
+            { credentials: 'include' }
+        );
+        const result = await response.json();
+        if (!result.success) throw new Error(result.error);
+        
+        const ids = new Set(result.data.map(loc => loc.locationID));
+        displayPlaces(allPlaces.filter(p => ids.has(p.id)));
+    } catch (error) {
+        console.error('Error loading cluster places:', error);
+    }
+}
+
 function clearPlaceMarkers() {
     locationMarkers.forEach(m => m.remove());
     locationMarkers = [];
@@ -199,18 +359,27 @@ function showLocationModal(place) {
     document.getElementById('locationDescription').textContent = place.description;
     document.getElementById('locationModal').classList.add('active');
     document.body.style.overflow = 'hidden';
-    loadTopReviews(place.id);
+    loadLocationDetail(place.id);
 }
 
-// Load top 3 reviews
-async function loadTopReviews(locationId) {
+// Load the current rating and top 3 reviews in one request
+// Only the preview of each review body is fetched
+async function loadLocationDetail(locationId) {
     try {
-        const response = await fetch(`${CONFIG.API_BASE_URL}/reviews/${locationId}/top`, { credentials: 'include' });
+        const response = await fetch(
+            `${CONFIG.API_BASE_URL}/locations/${locationId}/detail?fields=rating,topReviews&excerpt=${CONFIG.REVIEW_PREVIEW_LENGTH}`,
+            { credentials: 'include' }
+        );
         const result = await response.json();
-        const reviews = result.success && result.data ? result.data : [];
-        displayTopReviews(reviews);
+        if (!result.success) throw new Error(result.error);
+        
+        if (currentLocation && currentLocation.id == locationId) {
+            currentLocation.rating = result.data.rating;
+            document.getElementById('locationRating').textContent = result.data.rating.toFixed(1);
+        }
+        displayTopReviews(result.data.topReviews);
     } catch (error) {
-        console.error('Error loading reviews:', error);
+        console.error('Error loading location detail:', error);
         displayTopReviews([]);
     }
 }
@@ -229,12 +398,47 @@ function displayTopReviews(reviews) {
             <strong>${r.author || 'Anonymous'}</strong>
             <div>${generateStars(r.rating)}</div>
             <h4>${r.title}</h4>
-            <p>${r.body.substring(0, 200)}...</p>
+            <p>${r.body}${r.bodyTruncated ? '...' : ''}</p>
             <small>${formatDate(r.createdAt)}</small>
         </div>
     `).join('');
 }
 
+// Ratings and reviews pushed by the server as other users post them
+function subscribeLiveUpdates() {
+    if (!window.EventSource) return;
+    
+    liveEvents = new EventSource(`${CONFIG.API_BASE_URL}/events`, { withCredentials: true });
+    liveEvents.addEventListener('rating', e => applyRatingUpdate(JSON.parse(e.data)));
+    liveEvents.addEventListener('review', e => {
+        const review = JSON.parse(e.data);
+        if (currentLocation && currentLocation.id == review.locationID) {
+            loadLocationDetail(review.locationID);
+        }
+    });
+    // Updates were missed while disconnected
+    liveEvents.addEventListener('resync', () => loadPlaces());
+    liveEvents.onerror = () => {
+        // The browser reconnects by itself unless the server turned the stream away
+        if (liveEvents.readyState === EventSource.CLOSED) {
+            liveEvents = null;
+            setTimeout(subscribeLiveUpdates, CONFIG.LIVE_RETRY_MS);
+        }
+    };
+}
+
+function applyRatingUpdate(update) {
+    const place = allPlaces.find(p => p.id == update.locationID);
+    if (currentLocation && currentLocation.id == update.locationID) {
+        currentLocation.rating = update.rating;
+        document.getElementById('locationRating').textContent = update.rating.toFixed(1);
+    }
+    if (place) {
+        place.rating = update.rating;
+        displayPlaces(allPlaces);
+    }
+}
+
 // Utility functions
 function formatDate(dateStr) {
     try {
@@ -340,26 +544,39 @@ function setupEventListeners() {
     });
 }
 
+const MY_REVIEWS_PAGE_SIZE = 20;
+let myReviews = [];
+let myReviewsCursor = null;
+
 async function showMyReviewsModal() {
     if (!window.currentUser) {
         alert('Please login to view your reviews');
         return;
     }
     
+    myReviews = [];
+    myReviewsCursor = '';
+    showLoading(true);
+    await loadMoreMyReviews();
+    showLoading(false);
+}
+
+// Fetch the next keyset page of the user's reviews and append it
+async function loadMoreMyReviews() {
+    if (myReviewsCursor === null) return;
+    
     try {
-        showLoading(true);
-        
-        // Fetch user's reviews from all locations
         const response = await fetch(
-            `${CONFIG.API_BASE_URL}/reviews/user/${window.currentUser.userId}`,
+            `${CONFIG.API_BASE_URL}/reviews/user/${window.currentUser.userId}` +
+            `?pageSize=${MY_REVIEWS_PAGE_SIZE}&cursor=${encodeURIComponent(myReviewsCursor)}`,
             { credentials: 'include' }
         );
         const result = await response.json();
         
-        showLoading(false);
-        
         if (result.success) {
-            displayMyReviews(result.data);
+            myReviews = myReviews.concat(result.data);
+            myReviewsCursor = result.nextCursor;
+            displayMyReviews(myReviews, result.hasMore);
         } else {
             showError('Failed to load your reviews');
         }
@@ -370,14 +587,15 @@ async function showMyReviewsModal() {
     }
 }
 
-function displayMyReviews(reviews) {
+function displayMyReviews(reviews, hasMore = false) {
     // Open reviews modal with user's reviews
     document.getElementById('reviewsModal').classList.add('active');
     document.body.style.overflow = 'hidden';
     document.getElementById('reviewsLocationName').textContent = 'My Reviews';
     document.getElementById('reviewsRating').textContent = '';
     document.getElementById('reviewsStars').innerHTML = '';
-    document.getElementById('reviewsCount').textContent = `${reviews.length} review${reviews.length !== 1 ? 's' : ''}`;
+    document.getElementById('reviewsCount').textContent =
+        `${reviews.length}${hasMore ? '+' : ''} review${reviews.length !== 1 ? 's' : ''}`;
     
     // Hide sort controls for my reviews
     document.getElementById('reviewsSortSelect').style.display = 'none';
@@ -402,7 +620,15 @@ function displayMyReviews(reviews) {
             <h4>${r.title}</h4>
             <p>${r.body}</p>
         </div>
-    `).join('');
+    `).join('') + (hasMore ? '<button class="btn btn-secondary" id="loadMoreMyReviews">Load more</button>' : '');
+    
+    const loadMoreBtn = document.getElementById('loadMoreMyReviews');
+    if (loadMoreBtn) {
+        loadMoreBtn.addEventListener('click', () => {
+            loadMoreBtn.disabled = true;
+            loadMoreMyReviews();
+        });
+    }
     
     // Hide pagination for my reviews
     document.getElementById('reviewsPagination').style.display = 'none';
@@ -481,15 +707,30 @@ function addUserMarker(position) {
     mapContainer.appendChild(marker);
 }
 
-function updatePlacesDistances() {
-    allPlaces.forEach(place => {
-        place.distance = calculateDistance(
-            currentUserPosition[0],
-            currentUserPosition[1],
-            place.lat,
-            place.lng
+async function updatePlacesDistances() {
+    const [lat, lng] = currentUserPosition;
+    
+    try {
+        // Let the server's spatial index compute distances for every place
+        const response = await fetch(
+            `${CONFIG.API_BASE_URL}/locations/nearby?lat=${lat}&lng=${lng}&k=${Math.max(1, Math.min(allPlaces.length, 100))}`,
+            { credentials: 'include' }
         );
-    });
+        const result = await response.json();
+        if (!result.success) throw new Error(result.error);
+        
+        const distances = new Map(result.data.map(loc => [loc.locationID, loc.distance]));
+        allPlaces.forEach(place => {
+            place.distance = distances.has(place.id)
+                ? distances.get(place.id)
+                : calculateDistance(lat, lng, place.lat, place.lng);
+        });
+    } catch (error) {
+        console.error('Error loading nearby places:', error);
+        allPlaces.forEach(place => {
+            place.distance = calculateDistance(lat, lng, place.lat, place.lng);
+        });
+    }
     
     displayPlaces(allPlaces);
 }
@@ -639,7 +880,7 @@ function handleNextPage() {
 async function handleReviewSubmitSuccess(locationId) {
     // Reload the location to get updated rating
     try {
-        const response = await fetch(`${CONFIG.API_BASE_URL}/locations/${locationId}`, { 
+        const response = await fetch(`${CONFIG.API_BASE_URL}/locations/${locationId}/detail?fields=rating`, { 
             credentials: 'include' 
         });
         const data = await response.json();
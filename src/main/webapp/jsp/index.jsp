@@ -1,5 +1,6 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8"
     pageEncoding="UTF-8"%>
+<%@ page import="com.foodlocator.util.BootstrapData" %>
 <%
     // Check if user is logged in
     String username = (String) session.getAttribute("username");
@@ -18,9 +19,13 @@
     <link rel="preconnect" href="https://fonts.gstatic.com" crossorigin>
     <link href="https://fonts.googleapis.com/css2?family=Syne:wght@400;600;700;800&family=JetBrains+Mono:wght@400;500;600&display=swap" rel="stylesheet">
     <script>
+        // Catalog, session and map tiles inline, so the first render needs no API calls
+        window.BOOTSTRAP = <%= BootstrapData.json(session) %>;
         // Pass login status to JavaScript
         window.isLoggedIn = <%= isLoggedIn %>;
-        window.currentUser = <%= isLoggedIn ? "{username: '" + username + "', userId: " + userId + "}" : "null" %>;
+        window.currentUser = window.BOOTSTRAP.session.loggedIn
+            ? { username: window.BOOTSTRAP.session.username, userId: window.BOOTSTRAP.session.userId }
+            : null;
     </script>
 </head>
 <body>